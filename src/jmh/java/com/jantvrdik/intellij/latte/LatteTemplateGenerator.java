@@ -0,0 +1,75 @@
+package com.jantvrdik.intellij.latte;
+
+/**
+ * Generates Latte templates of given size for benchmarks.
+ */
+public class LatteTemplateGenerator {
+
+	private static final String[] CHUNKS = new String[] {
+		"{block content}\n",
+		"<div class=\"item\" n:if=\"$item->isVisible()\">\n",
+		"\t{foreach $items as $key => $item}\n",
+		"\t\t<a n:href=\"Product:detail, $item->id\" title=\"{$item->title|noescape}\">{$item->getName()|upper|truncate:20}</a>\n",
+		"\t\t{if $key % 2 === 0}<span>{_'even'}</span>{else}<span>{_}odd{/_}</span>{/if}\n",
+		"\t\t{var $price = $item->price * \\App\\Model\\Tax::RATE}\n",
+		"\t\t{include #row, item => $item, price => $price}\n",
+		"\t{/foreach}\n",
+		"</div>\n",
+		"{block row}<tr><td>{$item->name}</td><td>{$price|number:2}</td></tr>{/block}\n",
+		"{* comment {$ignored} *}\n",
+		"{input name} {label name /} {control form}\n",
+		"{/block}\n",
+	};
+
+	private static final String[] NESTED_MACROS = new String[] {"if $a", "foreach $items as $item", "block b", "ifset $b", "snippet s", "while $i--"};
+
+	public static final String MIXED = "mixed";
+	public static final String NESTED = "nested";
+	public static final String ATTRIBUTES = "attributes";
+
+	public static String generate(int size) {
+		return generate(MIXED, size);
+	}
+
+	/**
+	 * @param corpus MIXED (common layout template), NESTED (deeply nested pair macros) or ATTRIBUTES (HTML with many n:attributes)
+	 */
+	public static String generate(String corpus, int size) {
+		StringBuilder sb = new StringBuilder(size + 4096);
+		while (sb.length() < size) {
+			switch (corpus) {
+				case NESTED:
+					appendNested(sb, 40);
+					break;
+				case ATTRIBUTES:
+					appendAttributes(sb);
+					break;
+				default:
+					for (String chunk : CHUNKS) {
+						sb.append(chunk);
+					}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void appendNested(StringBuilder sb, int depth) {
+		for (int i = 0; i < depth; i++) {
+			sb.append('{').append(NESTED_MACROS[i % NESTED_MACROS.length]).append("}<p>{$item->name}</p>\n");
+		}
+		for (int i = depth - 1; i >= 0; i--) {
+			String macro = NESTED_MACROS[i % NESTED_MACROS.length];
+			int space = macro.indexOf(' ');
+			sb.append("{/").append(space > 0 ? macro.substring(0, space) : macro).append("}\n");
+		}
+	}
+
+	private static void appendAttributes(StringBuilder sb) {
+		sb.append("<ul n:if=\"$items\" n:inner-foreach=\"$items as $item\" class=\"list\" data-count=\"{count($items)}\">\n");
+		sb.append("\t<li n:class=\"$item->active ? active, $iterator->first ? first\" n:attr=\"title => $item->title\" id=\"item-{$item->id}\">\n");
+		sb.append("\t\t<a n:href=\"Product:detail $item->id\" n:tag-if=\"$item->link\" target='_blank'>{$item->name|truncate:30}</a>\n");
+		sb.append("\t\t<img n:src=\"$item->image\" alt=\"{$item->name}\" width=100 height=100 n:ifset=$item->image>\n");
+		sb.append("\t\t<input n:name=\"item{$item->id}\" type=\"checkbox\" checked n:attr=\"disabled => !$item->enabled\">\n");
+		sb.append("\t</li>\n</ul>\n");
+	}
+}
@@ -0,0 +1,98 @@
+package com.jantvrdik.intellij.latte.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.jantvrdik.intellij.latte.LatteTemplateGenerator;
+import com.jantvrdik.intellij.latte.psi.LatteTypes;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each lexer adapter alone, every adapter gets the same parts of the template as in LatteLexer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LatteLexerAdapterBenchmark {
+
+	@Param({LatteTemplateGenerator.MIXED, LatteTemplateGenerator.NESTED, LatteTemplateGenerator.ATTRIBUTES})
+	public String corpus;
+
+	@Param({"1000000"})
+	public int size;
+
+	private String template;
+
+	/** ranges of T_MACRO_CLASSIC, T_MACRO_CONTENT and T_PHP_CONTENT tokens as pairs of start and end offsets */
+	private int[] macroRanges;
+	private int[] contentRanges;
+	private int[] phpRanges;
+
+	@Setup
+	public void setUp() {
+		template = LatteTemplateGenerator.generate(corpus, size);
+		macroRanges = collectRanges(new LatteTopLexerAdapter(), new int[] {0, template.length()}, LatteTypes.T_MACRO_CLASSIC);
+		int[] topContentRanges = collectRanges(new LatteTopLexerAdapter(), new int[] {0, template.length()}, LatteTypes.T_MACRO_CONTENT);
+		int[] macroContentRanges = collectRanges(new LatteMacroLexerAdapter(), macroRanges, LatteTypes.T_MACRO_CONTENT);
+		contentRanges = concat(topContentRanges, macroContentRanges);
+		phpRanges = collectRanges(new LatteMacroContentLexerAdapter(), contentRanges, LatteTypes.T_PHP_CONTENT);
+	}
+
+	@Benchmark
+	public void topLexer(Blackhole blackhole) {
+		lex(new LatteTopLexerAdapter(), new int[] {0, template.length()}, blackhole);
+	}
+
+	@Benchmark
+	public void macroLexer(Blackhole blackhole) {
+		lex(new LatteMacroLexerAdapter(), macroRanges, blackhole);
+	}
+
+	@Benchmark
+	public void macroContentLexer(Blackhole blackhole) {
+		lex(new LatteMacroContentLexerAdapter(), contentRanges, blackhole);
+	}
+
+	@Benchmark
+	public void phpLexer(Blackhole blackhole) {
+		lex(new LattePhpLexerAdapter(), phpRanges, blackhole);
+	}
+
+	private void lex(Lexer lexer, int[] ranges, Blackhole blackhole) {
+		for (int i = 0; i < ranges.length; i += 2) {
+			lexer.start(template, ranges[i], ranges[i + 1], 0);
+			while (lexer.getTokenType() != null) {
+				blackhole.consume(lexer.getTokenType());
+				lexer.advance();
+			}
+		}
+	}
+
+	private int[] collectRanges(Lexer lexer, int[] ranges, IElementType type) {
+		int[] out = new int[64];
+		int size = 0;
+		for (int i = 0; i < ranges.length; i += 2) {
+			lexer.start(template, ranges[i], ranges[i + 1], 0);
+			while (lexer.getTokenType() != null) {
+				if (lexer.getTokenType() == type) {
+					if (size + 2 > out.length) {
+						out = Arrays.copyOf(out, out.length * 2);
+					}
+					out[size++] = lexer.getTokenStart();
+					out[size++] = lexer.getTokenEnd();
+				}
+				lexer.advance();
+			}
+		}
+		return Arrays.copyOf(out, size);
+	}
+
+	private static int[] concat(int[] first, int[] second) {
+		int[] out = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, out, first.length, second.length);
+		return out;
+	}
+}
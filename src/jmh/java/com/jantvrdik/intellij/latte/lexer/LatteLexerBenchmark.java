@@ -0,0 +1,63 @@
+package com.jantvrdik.intellij.latte.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.jantvrdik.intellij.latte.LatteTemplateGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second of LatteLexer compared with nested LayeredLexers (LatteLayeredLexer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LatteLexerBenchmark {
+
+	@Param({LatteTemplateGenerator.MIXED, LatteTemplateGenerator.NESTED, LatteTemplateGenerator.ATTRIBUTES})
+	public String corpus;
+
+	@Param({"10000", "1000000", "10000000"})
+	public int size;
+
+	private String template;
+
+	@Setup
+	public void setUp() {
+		template = LatteTemplateGenerator.generate(corpus, size);
+	}
+
+	/**
+	 * Reported as tokens/s next to ops/s.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Tokens {
+		public long tokens;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			tokens = 0;
+		}
+	}
+
+	@Benchmark
+	public void latteLexer(Tokens counter) {
+		counter.tokens += lex(new LatteLexer());
+	}
+
+	@Benchmark
+	public void layeredLexer(Tokens counter) {
+		counter.tokens += lex(new LatteLayeredLexer());
+	}
+
+	private int lex(Lexer lexer) {
+		int count = 0;
+		lexer.start(template);
+		while (lexer.getTokenType() != null) {
+			count++;
+			lexer.advance();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,69 @@
+package com.jantvrdik.intellij.latte.parser;
+
+import com.intellij.core.CoreApplicationEnvironment;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.LanguageParserDefinitions;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import com.jantvrdik.intellij.latte.LatteTemplateGenerator;
+import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.config.LatteConfigurationSnapshot;
+import com.jantvrdik.intellij.latte.lexer.LatteLexer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing via LatteParserDefinition and lookahead of the parser (macro pairing) on generated templates
+ * from 10 kB to 10 MB, time per template should grow linearly with the size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LatteParserBenchmark {
+
+	@Param({LatteTemplateGenerator.MIXED, LatteTemplateGenerator.NESTED, LatteTemplateGenerator.ATTRIBUTES})
+	public String corpus;
+
+	@Param({"10000", "100000", "1000000", "10000000"})
+	public int size;
+
+	private String template;
+	private LatteConfigurationSnapshot configuration;
+	private LatteParserDefinition parserDefinition;
+	private Disposable disposable;
+
+	@Setup
+	public void setUp() {
+		template = LatteTemplateGenerator.generate(corpus, size);
+		configuration = LatteConfiguration.INSTANCE.getSnapshot(null);
+
+		disposable = Disposer.newDisposable();
+		new CoreApplicationEnvironment(disposable);
+		parserDefinition = new LatteParserDefinition();
+		LanguageParserDefinitions.INSTANCE.addExplicitExtension(LatteLanguage.INSTANCE, parserDefinition);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LanguageParserDefinitions.INSTANCE.removeExplicitExtension(LatteLanguage.INSTANCE, parserDefinition);
+		Disposer.dispose(disposable);
+	}
+
+	@Benchmark
+	public ASTNode parse() {
+		PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(parserDefinition, parserDefinition.createLexer(null), template);
+		return parserDefinition.createParser(null).parse(parserDefinition.getFileNodeType(), builder);
+	}
+
+	@Benchmark
+	public LatteMacroPairingTable pairingTable() {
+		Lexer lexer = new LatteLexer();
+		lexer.start(template);
+		return LatteMacroPairingTable.create(lexer, configuration);
+	}
+}
@@ -0,0 +1,42 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of LattePhpType and normalization of class names, both are done for every resolved PHP element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LattePhpTypeBenchmark {
+
+	private static final String[] TYPES = new String[] {
+		"string", "Int", "iterable|null", "Iterable[]|null", "\\Foo\\Bar\\TestClass",
+		"Foo\\Bar\\TestClass|\\Bar\\TestClass|null", "Foo\\Bar\\TestClass[][]|String|null", "Unknown|String|NULL",
+		"\\Nette\\Application\\UI\\Presenter", "\\App\\Model\\Entity\\Product|null",
+	};
+
+	@Benchmark
+	public void create(Blackhole blackhole) {
+		for (String type : TYPES) {
+			blackhole.consume(LattePhpType.create(type));
+		}
+	}
+
+	@Benchmark
+	public void createNamed(Blackhole blackhole) {
+		for (String type : TYPES) {
+			blackhole.consume(LattePhpType.create("variable", type, true));
+		}
+	}
+
+	@Benchmark
+	public void normalizeClassName(Blackhole blackhole) {
+		for (String type : TYPES) {
+			blackhole.consume(LattePhpUtil.normalizeClassName(type));
+		}
+	}
+}
@@ -70,7 +70,11 @@ public class LatteAnnotator implements Annotator {
 			LatteMacroContent content = openTag.getMacroContent();
 			if (content != null) {
 				LattePhpContent phpContent = content.getFirstPhpContent();
-				if (phpContent != null && phpContent.getFirstChild() instanceof LattePhpVariable) {
+				PsiElement first = phpContent != null ? phpContent.getFirstChild() : null;
+				while (first instanceof LattePhpChainLink) {
+					first = ((LattePhpChainLink) first).getReceiver();
+				}
+				if (first instanceof LattePhpVariable) {
 					isOk = true;
 				}
 			}
@@ -3,6 +3,7 @@ package com.jantvrdik.intellij.latte.completion;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
@@ -16,6 +17,7 @@ import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.config.LatteMacro;
 import com.jantvrdik.intellij.latte.config.LatteModifier;
 import com.jantvrdik.intellij.latte.icons.LatteIcons;
+import com.jantvrdik.intellij.latte.indexes.LatteModifierIndex;
 import com.jantvrdik.intellij.latte.psi.*;
 import com.jantvrdik.intellij.latte.utils.LatteMimeTypes;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
@@ -94,8 +96,8 @@ public class LatteCompletionContributor extends CompletionContributor {
 				}
 
 				Map<String, LatteModifier> customModifiers = LatteConfiguration.INSTANCE.getCustomModifiers(element.getProject());
-				result.addAllElements(classicModifiersCompletions);
-				result.addAllElements(getClassicModifierCompletions(customModifiers));
+				result.addAllElements(prioritizeByUsages(element.getProject(), classicModifiersCompletions));
+				result.addAllElements(prioritizeByUsages(element.getProject(), getClassicModifierCompletions(customModifiers)));
 			}
 		});
 
@@ -160,6 +162,22 @@ public class LatteCompletionContributor extends CompletionContributor {
 		return lookupElements;
 	}
 
+	/**
+	 * Modifiers used more often in the project are offered first.
+	 */
+	private List<LookupElement> prioritizeByUsages(Project project, List<LookupElement> lookupElements) {
+		if (DumbService.isDumb(project)) {
+			return lookupElements;
+		}
+
+		List<LookupElement> out = new ArrayList<LookupElement>(lookupElements.size());
+		for (LookupElement lookupElement : lookupElements) {
+			int count = LatteModifierIndex.getUsageCount(project, lookupElement.getLookupString());
+			out.add(count > 0 ? PrioritizedLookupElement.withPriority(lookupElement, count) : lookupElement);
+		}
+		return out;
+	}
+
 	private LookupElementBuilder createBuilderWithHelp(LatteModifier modifier) {
 		LookupElementBuilder builder = LookupElementBuilder.create(modifier.name);
 		if (modifier.description.trim().length() > 0) {
@@ -2,8 +2,15 @@ package com.jantvrdik.intellij.latte.completion.providers;
 
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.InsertHandler;
+import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.ProcessingContext;
 import com.jantvrdik.intellij.latte.completion.handlers.PhpVariableInsertHandler;
 import com.jantvrdik.intellij.latte.psi.*;
@@ -14,16 +21,23 @@ import com.jantvrdik.intellij.latte.utils.LatteUtil;
 import com.jetbrains.php.completion.PhpLookupElement;
 import com.jetbrains.php.completion.insert.PhpFieldInsertHandler;
 import com.jetbrains.php.completion.insert.PhpMethodInsertHandler;
+import com.jetbrains.php.lang.PhpLanguage;
 import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.PhpModifier;
+import com.jetbrains.php.lang.psi.elements.PhpNamedElement;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class LattePhpCompletionProvider extends BaseLatteCompletionProvider {
 
+	private static final Key<CachedValue<ClassCompletions>> STATIC_COMPLETIONS_KEY = Key.create("LATTE_STATIC_COMPLETIONS");
+	private static final Key<CachedValue<ClassCompletions>> INSTANCE_COMPLETIONS_KEY = Key.create("LATTE_INSTANCE_COMPLETIONS");
+
 	private final LattePhpFunctionCompletionProvider functionCompletionProvider;
 	private final LattePhpClassCompletionProvider classCompletionProvider;
 	private final LattePhpNamespaceCompletionProvider namespaceCompletionProvider;
@@ -77,60 +91,108 @@ public class LattePhpCompletionProvider extends BaseLatteCompletionProvider {
 		LattePhpType type = psiElement.getPhpType();
 
 		Collection<PhpClass> phpClasses = type.getPhpClasses(psiElement.getProject());
-		if (phpClasses == null) {
+		if (phpClasses == null || phpClasses.isEmpty()) {
 			return;
 		}
 
 		boolean isMagicPrefixed = result.getPrefixMatcher().getPrefix().startsWith("__");
+		List<LookupElement> elements = new ArrayList<LookupElement>();
 		for (PhpClass phpClass : phpClasses) {
-			for (Method method : phpClass.getMethods()) {
-				PhpModifier modifier = method.getModifier();
-				if (modifier.isPublic() && canShowCompletionElement(isStatic, modifier)) {
-					String name = method.getName();
-					if (!isMagicPrefixed && LatteTypesUtil.isExcludedCompletion(name)) {
-						continue;
-					}
-					PhpLookupElement lookupItem = getPhpLookupElement(method, name);
-					lookupItem.handler = PhpMethodInsertHandler.getInstance();
-					result.addElement(lookupItem);
-				}
+			ClassCompletions completions = getClassCompletions(phpClass, isStatic);
+			addLookupElements(elements, completions.members);
+			if (isMagicPrefixed) {
+				addLookupElements(elements, completions.excludedMembers);
 			}
+		}
 
-			for (Field field : phpClass.getFields()) {
-				PhpModifier modifier = field.getModifier();
-				if (modifier.isPublic()) {
-					if (isStatic) {
-						if (field.isConstant()) {
-							PhpLookupElement lookupItem = getPhpLookupElement(field, field.getName());
-							lookupItem.handler = PhpFieldInsertHandler.getInstance();
-							result.addElement(lookupItem);
-
-						} else if (modifier.isStatic()) {
-							PhpLookupElement lookupItem = getPhpLookupElement(field, "$" + field.getName());
-							lookupItem.handler = PhpVariableInsertHandler.getInstance();
-							result.addElement(lookupItem);
-						}
-
-					} else {
-						if (!field.isConstant() && !modifier.isStatic()) {
-							PhpLookupElement lookupItem = getPhpLookupElement(field, field.getName());
-							lookupItem.handler = PhpFieldInsertHandler.getInstance();
-							result.addElement(lookupItem);
-						}
-					}
+		if (isStatic) {
+			for (String nativeConstant : LatteTypesUtil.getNativeClassConstants()) {
+				elements.add(LookupElementBuilder.create(nativeConstant));
+			}
+		}
+		result.addAllElements(elements);
+	}
+
+	/**
+	 * Lookup elements are mutable and owned by one completion session, so they are created for each invocation.
+	 */
+	private void addLookupElements(@NotNull List<LookupElement> elements, @NotNull List<ClassMember> members) {
+		for (ClassMember member : members) {
+			PhpLookupElement lookupItem = getPhpLookupElement(member.element, member.lookupString);
+			lookupItem.handler = member.handler;
+			elements.add(lookupItem);
+		}
+	}
+
+	/**
+	 * Public members are collected once per class and reused until PHP structure is changed.
+	 */
+	@NotNull
+	private ClassCompletions getClassCompletions(@NotNull PhpClass phpClass, boolean isStatic) {
+		return CachedValuesManager.getCachedValue(phpClass, isStatic ? STATIC_COMPLETIONS_KEY : INSTANCE_COMPLETIONS_KEY, () -> CachedValueProvider.Result.create(
+				createClassCompletions(phpClass, isStatic),
+				PsiModificationTracker.SERVICE.getInstance(phpClass.getProject()).forLanguage(PhpLanguage.INSTANCE)
+		));
+	}
+
+	@NotNull
+	private ClassCompletions createClassCompletions(@NotNull PhpClass phpClass, boolean isStatic) {
+		ClassCompletions completions = new ClassCompletions();
+		for (Method method : phpClass.getMethods()) {
+			PhpModifier modifier = method.getModifier();
+			if (modifier.isPublic() && canShowCompletionElement(isStatic, modifier)) {
+				String name = method.getName();
+				ClassMember member = new ClassMember(method, name, PhpMethodInsertHandler.getInstance());
+				if (LatteTypesUtil.isExcludedCompletion(name)) {
+					completions.excludedMembers.add(member);
+				} else {
+					completions.members.add(member);
 				}
 			}
+		}
 
-			if (isStatic) {
-				for (String nativeConstant : LatteTypesUtil.getNativeClassConstants()) {
-					result.addElement(LookupElementBuilder.create(nativeConstant));
+		for (Field field : phpClass.getFields()) {
+			PhpModifier modifier = field.getModifier();
+			if (modifier.isPublic()) {
+				if (isStatic) {
+					if (field.isConstant()) {
+						completions.members.add(new ClassMember(field, field.getName(), PhpFieldInsertHandler.getInstance()));
+
+					} else if (modifier.isStatic()) {
+						completions.members.add(new ClassMember(field, "$" + field.getName(), PhpVariableInsertHandler.getInstance()));
+					}
+
+				} else {
+					if (!field.isConstant() && !modifier.isStatic()) {
+						completions.members.add(new ClassMember(field, field.getName(), PhpFieldInsertHandler.getInstance()));
+					}
 				}
 			}
 		}
+		return completions;
 	}
 
 	private boolean canShowCompletionElement(boolean isStatic, @NotNull PhpModifier modifier) {
 		return (isStatic && modifier.isStatic()) || (!isStatic && !modifier.isStatic());
 	}
 
+	private static class ClassCompletions {
+		final List<ClassMember> members = new ArrayList<ClassMember>();
+
+		/** magic methods and others excluded from completion unless prefix starts with __ */
+		final List<ClassMember> excludedMembers = new ArrayList<ClassMember>();
+	}
+
+	private static class ClassMember {
+		final PhpNamedElement element;
+		final String lookupString;
+		final InsertHandler<LookupElement> handler;
+
+		ClassMember(@NotNull PhpNamedElement element, @NotNull String lookupString, @NotNull InsertHandler<LookupElement> handler) {
+			this.element = element;
+			this.lookupString = lookupString;
+			this.handler = handler;
+		}
+	}
+
 }
\ No newline at end of file
@@ -1,6 +1,11 @@
 package com.jantvrdik.intellij.latte.config;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.jantvrdik.intellij.latte.settings.*;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
 import org.jetbrains.annotations.NotNull;
@@ -24,6 +29,11 @@ public class LatteConfiguration {
 	/** list of standard macros, indexed by macro name */
 	private Map<String, LatteModifier> standardModifiers = new HashMap<String, LatteModifier>();
 
+	/** configuration without project settings */
+	private LatteConfigurationSnapshot standardSnapshot;
+
+	private static final Key<CachedValue<LatteConfigurationSnapshot>> SNAPSHOT_KEY = Key.create("LATTE_CONFIGURATION_SNAPSHOT");
+
 	public LatteConfiguration() {
 		initStandardMacros();
 		initStandardModifiers();
@@ -134,20 +144,30 @@ public class LatteConfiguration {
 	}
 
 	/**
-	 * @return macro with given name or null macro is not available
+	 * @return merged standard and project configuration, created again only when project settings are changed
 	 */
-	@Nullable
-	public LatteMacro getMacro(Project project, String name) {
-		if (standardMacros.containsKey(name)) {
-			return standardMacros.get(name);
+	@NotNull
+	public LatteConfigurationSnapshot getSnapshot(@Nullable Project project) {
+		if (project == null || project.isDefault()) {
+			if (standardSnapshot == null) {
+				standardSnapshot = new LatteConfigurationSnapshot(standardMacros, standardModifiers, null);
+			}
+			return standardSnapshot;
 		}
 
-		Map<String, LatteMacro> projectMacros = getCustomMacros(project);
-		if (projectMacros.containsKey(name)) {
-			return projectMacros.get(name);
-		}
+		return CachedValuesManager.getManager(project).getCachedValue(project, SNAPSHOT_KEY, () -> {
+			LatteSettings settings = getSettings(project);
+			LatteConfigurationSnapshot snapshot = new LatteConfigurationSnapshot(standardMacros, standardModifiers, settings);
+			return CachedValueProvider.Result.create(snapshot, settings != null ? settings : ModificationTracker.NEVER_CHANGED);
+		}, false);
+	}
 
-		return null;
+	/**
+	 * @return macro with given name or null macro is not available
+	 */
+	@Nullable
+	public LatteMacro getMacro(Project project, String name) {
+		return getSnapshot(project).getMacro(name);
 	}
 
 	/**
@@ -155,31 +175,12 @@ public class LatteConfiguration {
 	 */
 	@Nullable
 	public LatteModifier getModifier(Project project, String name) {
-		if (standardModifiers.containsKey(name)) {
-			return standardModifiers.get(name);
-		}
-
-		Map<String, LatteModifier> projectModifiers = getCustomModifiers(project);
-		if (projectModifiers.containsKey(name)) {
-			return projectModifiers.get(name);
-		}
-
-		return null;
+		return getSnapshot(project).getModifier(name);
 	}
 
 	@Nullable
 	public LatteCustomFunctionSettings getFunction(Project project, String name) {
-		LatteSettings settings = getSettings(project);
-		if (!settings.enableCustomModifiers) {
-			return null;
-		}
-
-		for (LatteCustomFunctionSettings functionSettings : settings.customFunctionSettings) {
-			if (functionSettings.getFunctionName().equals(name)) {
-				return functionSettings;
-			}
-		}
-		return null;
+		return getSnapshot(project).getFunction(name);
 	}
 
 	/**
@@ -187,19 +188,7 @@ public class LatteConfiguration {
 	 */
 	@Nullable
 	public LatteVariableSettings getVariable(Project project, String name) {
-		name = LattePhpUtil.normalizePhpVariable(name);
-
-		LatteSettings settings = getSettings(project);
-		if (settings == null || !settings.enableDefaultVariables || settings.variableSettings == null) {
-			return null;
-		}
-
-		for (LatteVariableSettings variable : settings.variableSettings) {
-			if (variable.getVarName().equals(name)) {
-				return variable;
-			}
-		}
-		return null;
+		return getSnapshot(project).getVariable(LattePhpUtil.normalizePhpVariable(name));
 	}
 
 	public LatteSettings getSettings(Project project) {
@@ -208,20 +197,12 @@ public class LatteConfiguration {
 
 	@NotNull
 	public List<LatteVariableSettings> getVariables(Project project) {
-		LatteSettings settings = getSettings(project);
-		if (!settings.enableDefaultVariables || settings.variableSettings == null) {
-			return Collections.emptyList();
-		}
-		return new ArrayList<LatteVariableSettings>(settings.variableSettings);
+		return getSnapshot(project).getVariables();
 	}
 
 	@NotNull
 	public List<LatteCustomFunctionSettings> getFunctions(Project project) {
-		LatteSettings settings = getSettings(project);
-		if (!settings.enableCustomFunctions) {
-			return Collections.emptyList();
-		}
-		return new ArrayList<LatteCustomFunctionSettings>(settings.customFunctionSettings);
+		return getSnapshot(project).getFunctions();
 	}
 
 	/**
@@ -245,19 +226,7 @@ public class LatteConfiguration {
 	 */
 	@NotNull
 	public Map<String, LatteMacro> getCustomMacros(Project project) {
-		LatteSettings settings = getSettings(project);
-		if (!settings.enableCustomMacros) {
-			return Collections.emptyMap();
-		}
-
-		Map<String, LatteMacro> projectMacros = new HashMap<String, LatteMacro>();
-		for (LatteCustomMacroSettings customMacro : settings.customMacroSettings) {
-			projectMacros.put(
-					customMacro.getMacroName(),
-					new LatteMacro(customMacro.getMacroName(), customMacro.getType(), customMacro.isAllowedModifiers(), customMacro.hasParameters())
-			);
-		}
-		return Collections.unmodifiableMap(projectMacros);
+		return getSnapshot(project).getCustomMacros();
 	}
 
 	/**
@@ -265,19 +234,7 @@ public class LatteConfiguration {
 	 */
 	@NotNull
 	public Map<String, LatteModifier> getCustomModifiers(Project project) {
-		LatteSettings settings = getSettings(project);
-		if (!settings.enableCustomModifiers) {
-			return Collections.emptyMap();
-		}
-
-		Map<String, LatteModifier> projectModifiers = new HashMap<String, LatteModifier>();
-		for (LatteCustomModifierSettings customModifier : settings.customModifierSettings) {
-			projectModifiers.put(
-					customModifier.getModifierName(),
-					new LatteModifier(customModifier.getModifierName(), customModifier.getModifierDescription(), customModifier.getModifierHelp())
-			);
-		}
-		return Collections.unmodifiableMap(projectModifiers);
+		return getSnapshot(project).getCustomModifiers();
 	}
 
 	private void addStandardMacro(LatteMacro macro) {
@@ -0,0 +1,138 @@
+package com.jantvrdik.intellij.latte.config;
+
+import com.jantvrdik.intellij.latte.settings.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Immutable merge of standard and project-specific macros, modifiers, functions and variables.
+ * Created again only when LatteSettings are changed (see LatteConfiguration.getSnapshot).
+ */
+public class LatteConfigurationSnapshot {
+
+	private final long modificationCount;
+
+	private final Map<String, LatteMacro> macros;
+	private final Map<String, LatteMacro> customMacros;
+	private final Map<String, LatteModifier> modifiers;
+	private final Map<String, LatteModifier> customModifiers;
+	private final Map<String, LatteCustomFunctionSettings> functions;
+	private final List<LatteCustomFunctionSettings> functionList;
+	private final Map<String, LatteVariableSettings> variables;
+	private final List<LatteVariableSettings> variableList;
+
+	LatteConfigurationSnapshot(
+			@NotNull Map<String, LatteMacro> standardMacros,
+			@NotNull Map<String, LatteModifier> standardModifiers,
+			@Nullable LatteSettings settings
+	) {
+		this.modificationCount = settings == null ? 0 : settings.getModificationCount();
+
+		Map<String, LatteMacro> customMacros = new HashMap<String, LatteMacro>();
+		Map<String, LatteModifier> customModifiers = new HashMap<String, LatteModifier>();
+		Map<String, LatteCustomFunctionSettings> functions = new HashMap<String, LatteCustomFunctionSettings>();
+		List<LatteCustomFunctionSettings> functionList = new ArrayList<LatteCustomFunctionSettings>();
+		Map<String, LatteVariableSettings> variables = new HashMap<String, LatteVariableSettings>();
+		List<LatteVariableSettings> variableList = new ArrayList<LatteVariableSettings>();
+
+		if (settings != null) {
+			if (settings.enableCustomMacros && settings.customMacroSettings != null) {
+				for (LatteCustomMacroSettings customMacro : settings.customMacroSettings) {
+					customMacros.put(
+							customMacro.getMacroName(),
+							new LatteMacro(customMacro.getMacroName(), customMacro.getType(), customMacro.isAllowedModifiers(), customMacro.hasParameters())
+					);
+				}
+			}
+
+			if (settings.enableCustomModifiers && settings.customModifierSettings != null) {
+				for (LatteCustomModifierSettings customModifier : settings.customModifierSettings) {
+					customModifiers.put(
+							customModifier.getModifierName(),
+							new LatteModifier(customModifier.getModifierName(), customModifier.getModifierDescription(), customModifier.getModifierHelp())
+					);
+				}
+			}
+
+			if (settings.enableCustomFunctions && settings.customFunctionSettings != null) {
+				functionList.addAll(settings.customFunctionSettings);
+				for (LatteCustomFunctionSettings function : functionList) {
+					functions.putIfAbsent(function.getFunctionName(), function);
+				}
+			}
+
+			if (settings.enableDefaultVariables && settings.variableSettings != null) {
+				variableList.addAll(settings.variableSettings);
+				for (LatteVariableSettings variable : variableList) {
+					variables.putIfAbsent(variable.getVarName(), variable);
+				}
+			}
+		}
+
+		Map<String, LatteMacro> macros = new HashMap<String, LatteMacro>(customMacros);
+		macros.putAll(standardMacros);
+		Map<String, LatteModifier> modifiers = new HashMap<String, LatteModifier>(customModifiers);
+		modifiers.putAll(standardModifiers);
+
+		this.macros = Collections.unmodifiableMap(macros);
+		this.customMacros = Collections.unmodifiableMap(customMacros);
+		this.modifiers = Collections.unmodifiableMap(modifiers);
+		this.customModifiers = Collections.unmodifiableMap(customModifiers);
+		this.functions = Collections.unmodifiableMap(functions);
+		this.functionList = Collections.unmodifiableList(functionList);
+		this.variables = Collections.unmodifiableMap(variables);
+		this.variableList = Collections.unmodifiableList(variableList);
+	}
+
+	/**
+	 * @return modification count of LatteSettings this snapshot was created from
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	@Nullable
+	public LatteMacro getMacro(String name) {
+		return macros.get(name);
+	}
+
+	@Nullable
+	public LatteModifier getModifier(String name) {
+		return modifiers.get(name);
+	}
+
+	@Nullable
+	public LatteCustomFunctionSettings getFunction(String name) {
+		return functions.get(name);
+	}
+
+	/**
+	 * @param name variable name without $
+	 */
+	@Nullable
+	public LatteVariableSettings getVariable(String name) {
+		return variables.get(name);
+	}
+
+	@NotNull
+	public Map<String, LatteMacro> getCustomMacros() {
+		return customMacros;
+	}
+
+	@NotNull
+	public Map<String, LatteModifier> getCustomModifiers() {
+		return customModifiers;
+	}
+
+	@NotNull
+	public List<LatteCustomFunctionSettings> getFunctions() {
+		return functionList;
+	}
+
+	@NotNull
+	public List<LatteVariableSettings> getVariables() {
+		return variableList;
+	}
+}
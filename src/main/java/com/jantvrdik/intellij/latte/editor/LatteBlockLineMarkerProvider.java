@@ -0,0 +1,75 @@
+package com.jantvrdik.intellij.latte.editor;
+
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockUsage;
+import com.jantvrdik.intellij.latte.indexes.LatteTemplateUsage;
+import com.jantvrdik.intellij.latte.psi.LatteTypes;
+import com.jantvrdik.intellij.latte.utils.LatteTemplateGraph;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gutter markers for blocks which override a block of a parent template ({extends}, {import}, {embed})
+ * or which are overridden in child templates.
+ *
+ * Templates are found in LatteTemplateGraph and blocks in LatteBlockIndex, only files with the block are loaded.
+ */
+public class LatteBlockLineMarkerProvider extends RelatedItemLineMarkerProvider {
+
+	private static final int PARENT_KINDS = LatteTemplateUsage.EXTENDS | LatteTemplateUsage.IMPORT | LatteTemplateUsage.EMBED;
+	private static final int CHILD_KINDS = LatteTemplateUsage.EXTENDS | LatteTemplateUsage.EMBED;
+
+	@Override
+	protected void collectNavigationMarkers(@NotNull PsiElement element, @NotNull Collection<? super RelatedItemLineMarkerInfo> result) {
+		if (element.getNode().getElementType() != LatteTypes.T_MACRO_NAME && element.getNode().getElementType() != LatteTypes.T_HTML_TAG_NATTR_NAME) {
+			return;
+		}
+
+		PsiElement definition = element.getParent();
+		if (definition == null || (LatteBlockIndex.getKind(definition) & LatteBlockUsage.DEFINITION) == 0) {
+			return;
+		}
+		String name = LatteBlockIndex.getBlockName(definition);
+		VirtualFile file = definition.getContainingFile().getVirtualFile();
+		if (name == null || file == null) {
+			return;
+		}
+
+		LatteTemplateGraph graph = LatteTemplateGraph.getInstance(element.getProject());
+		List<PsiElement> parents = findDefinitions(definition, name, graph.getReferencedTemplatesDeep(file, PARENT_KINDS));
+		if (parents.size() > 0) {
+			result.add(NavigationGutterIconBuilder.create(AllIcons.Gutter.OverridingMethod)
+					.setTargets(parents)
+					.setTooltipText("Overrides block '" + name + "'")
+					.createLineMarkerInfo(element));
+		}
+
+		List<PsiElement> children = findDefinitions(definition, name, graph.getReferencingTemplatesDeep(file, CHILD_KINDS));
+		if (children.size() > 0) {
+			result.add(NavigationGutterIconBuilder.create(AllIcons.Gutter.OverriddenMethod)
+					.setTargets(children)
+					.setTooltipText("Block '" + name + "' is overridden")
+					.createLineMarkerInfo(element));
+		}
+	}
+
+	@NotNull
+	private static List<PsiElement> findDefinitions(@NotNull PsiElement definition, @NotNull String name, @NotNull Set<VirtualFile> files) {
+		if (files.isEmpty()) {
+			return Collections.emptyList();
+		}
+		GlobalSearchScope scope = GlobalSearchScope.filesScope(definition.getProject(), files);
+		return LatteBlockIndex.findElements(definition.getProject(), name, LatteBlockUsage.DEFINITION, scope);
+	}
+}
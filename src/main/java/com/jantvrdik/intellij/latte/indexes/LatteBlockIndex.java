@@ -0,0 +1,228 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Indexes block names defined by {block}, {define} and n:block and used by {include} and {includeblock}.
+ */
+public class LatteBlockIndex extends FileBasedIndexExtension<String, LatteBlockUsage> {
+	public static final ID<String, LatteBlockUsage> KEY = ID.create("com.jantvrdik.intellij.latte.indexes.LatteBlockIndex");
+
+	@NotNull
+	@Override
+	public ID<String, LatteBlockUsage> getName() {
+		return KEY;
+	}
+
+	@NotNull
+	@Override
+	public DataIndexer<String, LatteBlockUsage, FileContent> getIndexer() {
+		return inputData -> {
+			PsiFile psiFile = inputData.getPsiFile();
+			if (!(psiFile instanceof LatteFile)) {
+				return Collections.emptyMap();
+			}
+
+			Map<String, LatteBlockUsage> map = new HashMap<String, LatteBlockUsage>();
+			for (PsiElement element : PsiTreeUtil.findChildrenOfAnyType(psiFile, LatteMacroTag.class, LatteNetteAttr.class)) {
+				int kind = getKind(element);
+				String name = kind != 0 ? getBlockName(element) : null;
+				if (name != null) {
+					map.computeIfAbsent(name, k -> new LatteBlockUsage()).add(kind, element.getTextRange().getStartOffset());
+				}
+			}
+			return map;
+		};
+	}
+
+	@NotNull
+	@Override
+	public KeyDescriptor<String> getKeyDescriptor() {
+		return EnumeratorStringDescriptor.INSTANCE;
+	}
+
+	@NotNull
+	@Override
+	public DataExternalizer<LatteBlockUsage> getValueExternalizer() {
+		return LatteBlockUsage.EXTERNALIZER;
+	}
+
+	@Override
+	public int getVersion() {
+		return 1;
+	}
+
+	@NotNull
+	@Override
+	public FileBasedIndex.InputFilter getInputFilter() {
+		return new DefaultFileTypeSpecificInputFilter(LatteFileType.INSTANCE);
+	}
+
+	@Override
+	public boolean dependsOnFileContent() {
+		return true;
+	}
+
+	/**
+	 * Returns tags (LatteMacroTag) and n:attributes (LatteNetteAttr) with given block name and kind.
+	 *
+	 * @param kinds mask of LatteBlockUsage kinds
+	 */
+	@NotNull
+	public static List<PsiElement> findElements(@NotNull Project project, @NotNull String name, int kinds, @NotNull GlobalSearchScope scope) {
+		Map<VirtualFile, LatteBlockUsage> usages = new LinkedHashMap<VirtualFile, LatteBlockUsage>();
+		FileBasedIndex.getInstance().processValues(KEY, name, null, (file, value) -> {
+			if (value.hasKind(kinds)) {
+				usages.put(file, value);
+			}
+			return true;
+		}, scope);
+
+		List<PsiElement> out = new ArrayList<PsiElement>();
+		PsiManager manager = PsiManager.getInstance(project);
+		for (Map.Entry<VirtualFile, LatteBlockUsage> entry : usages.entrySet()) {
+			PsiFile file = manager.findFile(entry.getKey());
+			if (!(file instanceof LatteFile)) {
+				continue;
+			}
+
+			LatteBlockUsage usage = entry.getValue();
+			for (int i = 0; i < usage.size(); i++) {
+				if ((usage.getKind(i) & kinds) == 0) {
+					continue;
+				}
+				PsiElement element = findElementAt(file, usage.getOffset(i));
+				if (element != null && name.equals(getBlockName(element))) {
+					out.add(element);
+				}
+			}
+		}
+		return out;
+	}
+
+	@Nullable
+	private static PsiElement findElementAt(@NotNull PsiFile file, int offset) {
+		PsiElement leaf = file.findElementAt(offset);
+		PsiElement element = PsiTreeUtil.getParentOfType(leaf, LatteMacroTag.class, LatteNetteAttr.class);
+		return element != null && element.getTextRange().getStartOffset() == offset ? element : null;
+	}
+
+	/**
+	 * @return LatteBlockUsage kind of element, 0 if element does not define or use a block
+	 */
+	public static int getKind(@NotNull PsiElement element) {
+		if (element instanceof LatteMacroOpenTag || element instanceof LatteEmptyMacroTag) {
+			String macroName = ((LatteMacroTag) element).getMacroName();
+			if ("block".equals(macroName)) {
+				return LatteBlockUsage.BLOCK;
+			} else if ("define".equals(macroName)) {
+				return LatteBlockUsage.DEFINE;
+			} else if ("include".equals(macroName) || "includeblock".equals(macroName)) {
+				return LatteBlockUsage.INCLUDE;
+			}
+
+		} else if (element instanceof LatteNetteAttr && "n:block".equals(((LatteNetteAttr) element).getAttrName().getText())) {
+			return LatteBlockUsage.BLOCK;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return name of block defined or used by element (see getKind)
+	 */
+	@Nullable
+	public static String getBlockName(@NotNull PsiElement element) {
+		TextRange range = getBlockNameRange(element);
+		return range != null ? range.substring(element.getText()) : null;
+	}
+
+	/**
+	 * @return range of block name relative to element
+	 */
+	@Nullable
+	public static TextRange getBlockNameRange(@NotNull PsiElement element) {
+		int kind = getKind(element);
+		PsiElement content = null;
+		if (element instanceof LatteMacroTag) {
+			content = ((LatteMacroTag) element).getMacroContent();
+		} else if (element instanceof LatteNetteAttr) {
+			content = ((LatteNetteAttr) element).getAttrValue();
+		}
+		if (kind == 0 || content == null) {
+			return null;
+		}
+
+		TextRange range = parseBlockName(content.getText(), kind == LatteBlockUsage.INCLUDE);
+		return range != null ? range.shiftRight(content.getStartOffsetInParent()) : null;
+	}
+
+	/**
+	 * Finds block name in content of {block}, {define}, {include} tags or in n:block value.
+	 *
+	 * @param include true for {include} where the name must be marked as block (#name, block name) or must not look like a file,
+	 *                {include parent} and {include this} are not block names
+	 * @return range of the name in content, null for anonymous blocks, dynamic names and files
+	 */
+	@Nullable
+	public static TextRange parseBlockName(@NotNull String content, boolean include) {
+		int start = 0;
+		int length = content.length();
+		if (length > 0 && (content.charAt(0) == '"' || content.charAt(0) == '\'')) {
+			start = 1;
+			length = content.lastIndexOf(content.charAt(0)) > 0 ? content.lastIndexOf(content.charAt(0)) : length;
+		}
+		start = skipWhitespaces(content, start, length);
+
+		boolean marked = false;
+		if (content.startsWith("block ", start)) {
+			start = skipWhitespaces(content, start + 6, length);
+			marked = true;
+		} else if (include && content.startsWith("file ", start)) {
+			return null;
+		} else if (!include && content.startsWith("local ", start)) {
+			start = skipWhitespaces(content, start + 6, length);
+		}
+
+		if (start < length && content.charAt(start) == '#') {
+			start++;
+			marked = true;
+		}
+
+		int end = start;
+		while (end < length && !Character.isWhitespace(content.charAt(end)) && ",|".indexOf(content.charAt(end)) < 0) {
+			end++;
+		}
+
+		String name = content.substring(start, end);
+		if (name.length() == 0 || name.contains("$") || name.contains("{") || name.contains("'") || name.contains("\"")) {
+			return null;
+		} else if (include && !marked && (name.contains(".") || name.contains("/") || name.equals("parent") || name.equals("this"))) {
+			return null;
+		}
+		return new TextRange(start, end);
+	}
+
+	private static int skipWhitespaces(@NotNull String content, int offset, int length) {
+		while (offset < length && Character.isWhitespace(content.charAt(offset))) {
+			offset++;
+		}
+		return offset;
+	}
+}
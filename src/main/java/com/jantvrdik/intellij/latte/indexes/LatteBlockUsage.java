@@ -0,0 +1,101 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.util.io.DataExternalizer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Definitions and usages of one block name in one Latte file: kinds of tags with their offsets in the file.
+ */
+public class LatteBlockUsage {
+	/** {block name} or n:block="name" */
+	public static final int BLOCK = 1;
+	/** {define name} */
+	public static final int DEFINE = 2;
+	/** {include #name}, {include block name}... */
+	public static final int INCLUDE = 4;
+	public static final int DEFINITION = BLOCK | DEFINE;
+
+	public static final DataExternalizer<LatteBlockUsage> EXTERNALIZER = new DataExternalizer<LatteBlockUsage>() {
+		@Override
+		public void save(@NotNull DataOutput out, LatteBlockUsage value) throws IOException {
+			out.writeInt(value.size);
+			for (int i = 0; i < value.size; i++) {
+				out.writeByte(value.kinds[i]);
+				out.writeInt(value.offsets[i]);
+			}
+		}
+
+		@Override
+		public LatteBlockUsage read(@NotNull DataInput in) throws IOException {
+			LatteBlockUsage value = new LatteBlockUsage();
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				value.add(in.readByte(), in.readInt());
+			}
+			return value;
+		}
+	};
+
+	private int[] kinds = new int[1];
+	private int[] offsets = new int[1];
+	private int size = 0;
+
+	void add(int kind, int offset) {
+		if (size == kinds.length) {
+			kinds = Arrays.copyOf(kinds, size * 2);
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		kinds[size] = kind;
+		offsets[size] = offset;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getKind(int index) {
+		return kinds[index];
+	}
+
+	/**
+	 * @return start offset of the tag (or n:attribute) in the file
+	 */
+	public int getOffset(int index) {
+		return offsets[index];
+	}
+
+	public boolean hasKind(int kinds) {
+		for (int i = 0; i < size; i++) {
+			if ((this.kinds[i] & kinds) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof LatteBlockUsage)) {
+			return false;
+		}
+		LatteBlockUsage usage = (LatteBlockUsage) obj;
+		return size == usage.size
+				&& Arrays.equals(Arrays.copyOf(kinds, size), Arrays.copyOf(usage.kinds, size))
+				&& Arrays.equals(Arrays.copyOf(offsets, size), Arrays.copyOf(usage.offsets, size));
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = size;
+		for (int i = 0; i < size; i++) {
+			hash = 31 * (31 * hash + kinds[i]) + offsets[i];
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LatteMacroModifier;
+import org.jetbrains.annotations.NotNull;
+
+public class LatteMacroModifierStubIndex extends StringStubIndexExtension<LatteMacroModifier> {
+	public static final StubIndexKey<String, LatteMacroModifier> KEY = StubIndexKey.createIndexKey("latte.modifier");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LatteMacroModifier> getKey() {
+		return KEY;
+	}
+}
@@ -0,0 +1,93 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.psi.LatteFile;
+import com.jantvrdik.intellij.latte.psi.LatteMacroModifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Indexes names of modifiers (filters) used in Latte files with number of usages in each file.
+ */
+public class LatteModifierIndex extends FileBasedIndexExtension<String, Integer> {
+	public static final ID<String, Integer> KEY = ID.create("com.jantvrdik.intellij.latte.indexes.LatteModifierIndex");
+
+	@NotNull
+	@Override
+	public ID<String, Integer> getName() {
+		return KEY;
+	}
+
+	@NotNull
+	@Override
+	public DataIndexer<String, Integer, FileContent> getIndexer() {
+		return inputData -> {
+			PsiFile psiFile = inputData.getPsiFile();
+			if (!(psiFile instanceof LatteFile)) {
+				return Collections.emptyMap();
+			}
+
+			Map<String, Integer> map = new HashMap<String, Integer>();
+			for (LatteMacroModifier modifier : PsiTreeUtil.findChildrenOfType(psiFile, LatteMacroModifier.class)) {
+				String name = modifier.getModifierName();
+				if (name != null && name.length() > 0) {
+					map.merge(name, 1, Integer::sum);
+				}
+			}
+			return map;
+		};
+	}
+
+	@NotNull
+	@Override
+	public KeyDescriptor<String> getKeyDescriptor() {
+		return EnumeratorStringDescriptor.INSTANCE;
+	}
+
+	@NotNull
+	@Override
+	public DataExternalizer<Integer> getValueExternalizer() {
+		return EnumeratorIntegerDescriptor.INSTANCE;
+	}
+
+	@Override
+	public int getVersion() {
+		return 1;
+	}
+
+	@NotNull
+	@Override
+	public FileBasedIndex.InputFilter getInputFilter() {
+		return new DefaultFileTypeSpecificInputFilter(LatteFileType.INSTANCE);
+	}
+
+	@Override
+	public boolean dependsOnFileContent() {
+		return true;
+	}
+
+	/**
+	 * Sums stored per-file counts, no PSI is loaded. Returns 0 while indexes are being updated.
+	 */
+	public static int getUsageCount(@NotNull Project project, @NotNull String name) {
+		if (DumbService.isDumb(project)) {
+			return 0;
+		}
+		int count = 0;
+		for (Integer value : FileBasedIndex.getInstance().getValues(KEY, name, GlobalSearchScope.allScope(project))) {
+			count += value;
+		}
+		return count;
+	}
+}
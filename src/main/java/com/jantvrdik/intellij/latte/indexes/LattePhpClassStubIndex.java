@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LattePhpClass;
+import org.jetbrains.annotations.NotNull;
+
+public class LattePhpClassStubIndex extends StringStubIndexExtension<LattePhpClass> {
+	public static final StubIndexKey<String, LattePhpClass> KEY = StubIndexKey.createIndexKey("latte.class");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LattePhpClass> getKey() {
+		return KEY;
+	}
+}
@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LattePhpConstant;
+import org.jetbrains.annotations.NotNull;
+
+public class LattePhpConstantStubIndex extends StringStubIndexExtension<LattePhpConstant> {
+	public static final StubIndexKey<String, LattePhpConstant> KEY = StubIndexKey.createIndexKey("latte.constant");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LattePhpConstant> getKey() {
+		return KEY;
+	}
+}
@@ -0,0 +1,145 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.psi.*;
+import com.jantvrdik.intellij.latte.psi.elements.BaseLattePhpElement;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Indexes names of PHP methods, functions, properties, constants, static variables and classes used in Latte files.
+ */
+public class LattePhpMemberIndex extends FileBasedIndexExtension<String, LattePhpMemberUsage> {
+	public static final ID<String, LattePhpMemberUsage> KEY = ID.create("com.jantvrdik.intellij.latte.indexes.LattePhpMemberIndex");
+
+	@NotNull
+	@Override
+	public ID<String, LattePhpMemberUsage> getName() {
+		return KEY;
+	}
+
+	@NotNull
+	@Override
+	public DataIndexer<String, LattePhpMemberUsage, FileContent> getIndexer() {
+		return inputData -> {
+			PsiFile psiFile = inputData.getPsiFile();
+			if (!(psiFile instanceof LatteFile)) {
+				return Collections.emptyMap();
+			}
+
+			Map<String, LattePhpMemberUsage> map = new HashMap<String, LattePhpMemberUsage>();
+			psiFile.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
+				@Override
+				public void visitElement(PsiElement element) {
+					int kind = getKind(element);
+					if (kind != 0) {
+						String name = ((BaseLattePhpElement) element).getPhpElementName();
+						if (name != null) {
+							map.computeIfAbsent(name, k -> new LattePhpMemberUsage()).add(kind, findReceiver(element));
+						}
+					}
+					super.visitElement(element);
+				}
+			});
+			return map;
+		};
+	}
+
+	@NotNull
+	@Override
+	public KeyDescriptor<String> getKeyDescriptor() {
+		return EnumeratorStringDescriptor.INSTANCE;
+	}
+
+	@NotNull
+	@Override
+	public DataExternalizer<LattePhpMemberUsage> getValueExternalizer() {
+		return LattePhpMemberUsage.EXTERNALIZER;
+	}
+
+	@Override
+	public int getVersion() {
+		return 2;
+	}
+
+	@NotNull
+	@Override
+	public FileBasedIndex.InputFilter getInputFilter() {
+		return new DefaultFileTypeSpecificInputFilter(LatteFileType.INSTANCE);
+	}
+
+	@Override
+	public boolean dependsOnFileContent() {
+		return true;
+	}
+
+	/**
+	 * Returns Latte files which use given name as given kind of element, optionally on one of given classes.
+	 */
+	public static Collection<VirtualFile> findFiles(@NotNull Project project, @NotNull String name, int kind, @Nullable Collection<PhpClass> phpClasses) {
+		Set<String> classNames = null;
+		if (phpClasses != null && phpClasses.size() > 0) {
+			classNames = new HashSet<String>();
+			for (PhpClass phpClass : phpClasses) {
+				classNames.add(phpClass.getFQN());
+			}
+		}
+
+		Set<String> finalClassNames = classNames;
+		List<VirtualFile> files = new ArrayList<VirtualFile>();
+		FileBasedIndex.getInstance().processValues(KEY, name, null, (file, value) -> {
+			if (value.matches(kind, finalClassNames)) {
+				files.add(file);
+			}
+			return true;
+		}, GlobalSearchScope.allScope(project));
+		return files;
+	}
+
+	public static int getKind(@NotNull PsiElement element) {
+		if (element instanceof LattePhpMethod) {
+			return ((LattePhpMethod) element).isFunction() ? LattePhpMemberUsage.FUNCTION : LattePhpMemberUsage.METHOD;
+		} else if (element instanceof LattePhpProperty) {
+			return LattePhpMemberUsage.PROPERTY;
+		} else if (element instanceof LattePhpConstant) {
+			return LattePhpMemberUsage.CONSTANT;
+		} else if (element instanceof LattePhpStaticVariable) {
+			return LattePhpMemberUsage.STATIC_VARIABLE;
+		} else if (element instanceof LattePhpClass) {
+			return LattePhpMemberUsage.CLASS;
+		}
+		return 0;
+	}
+
+	/**
+	 * Only receivers written as class names (Foo::bar) are known without resolving anything outside of the file.
+	 */
+	@Nullable
+	private static String findReceiver(@NotNull PsiElement element) {
+		if (element instanceof LattePhpClass) {
+			return null;
+		}
+
+		PsiElement prev = PsiTreeUtil.skipWhitespacesBackward(element);
+		if (prev == null || prev.getNode().getElementType() != LatteTypes.T_PHP_DOUBLE_COLON) {
+			return null;
+		}
+
+		PsiElement receiver = PsiTreeUtil.skipWhitespacesBackward(prev);
+		return receiver instanceof LattePhpClass ? ((LattePhpClass) receiver).getClassName() : null;
+	}
+}
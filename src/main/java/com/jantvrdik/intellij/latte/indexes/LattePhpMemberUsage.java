@@ -0,0 +1,109 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.util.io.DataExternalizer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Usages of one PHP member name in one Latte file: which kinds of elements use the name
+ * and which receiver classes are known from the template text.
+ */
+public class LattePhpMemberUsage {
+	public static final int METHOD = 1;
+	public static final int PROPERTY = 2;
+	public static final int CONSTANT = 4;
+	public static final int STATIC_VARIABLE = 8;
+	public static final int CLASS = 16;
+	/** function call without receiver, e.g. {=isLinkCurrent()} */
+	public static final int FUNCTION = 32;
+
+	public static final DataExternalizer<LattePhpMemberUsage> EXTERNALIZER = new DataExternalizer<LattePhpMemberUsage>() {
+		@Override
+		public void save(@NotNull DataOutput out, LattePhpMemberUsage value) throws IOException {
+			out.writeInt(value.kinds);
+			out.writeBoolean(value.unknownReceiver);
+			out.writeInt(value.receivers.size());
+			for (String receiver : value.receivers) {
+				out.writeUTF(receiver);
+			}
+		}
+
+		@Override
+		public LattePhpMemberUsage read(@NotNull DataInput in) throws IOException {
+			LattePhpMemberUsage value = new LattePhpMemberUsage();
+			value.kinds = in.readInt();
+			value.unknownReceiver = in.readBoolean();
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				value.receivers.add(in.readUTF());
+			}
+			return value;
+		}
+	};
+
+	private int kinds = 0;
+	private boolean unknownReceiver = false;
+	private final Set<String> receivers = new TreeSet<String>();
+
+	void add(int kind, @Nullable String receiver) {
+		kinds |= kind;
+		if (receiver == null) {
+			unknownReceiver = true;
+		} else {
+			receivers.add(receiver);
+		}
+	}
+
+	public int getKinds() {
+		return kinds;
+	}
+
+	public boolean hasUnknownReceiver() {
+		return unknownReceiver;
+	}
+
+	public Set<String> getReceivers() {
+		return receivers;
+	}
+
+	/**
+	 * @param classNames normalized FQNs of wanted receivers, null or empty for any receiver
+	 */
+	public boolean matches(int kind, @Nullable Collection<String> classNames) {
+		if ((kinds & kind) == 0) {
+			return false;
+		}
+
+		if (classNames == null || classNames.size() == 0 || unknownReceiver) {
+			return true;
+		}
+
+		for (String className : classNames) {
+			if (receivers.contains(className)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof LattePhpMemberUsage)) {
+			return false;
+		}
+		LattePhpMemberUsage usage = (LattePhpMemberUsage) obj;
+		return kinds == usage.kinds && unknownReceiver == usage.unknownReceiver && receivers.equals(usage.receivers);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * kinds + (unknownReceiver ? 1 : 0)) + receivers.hashCode();
+	}
+}
@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LattePhpMethod;
+import org.jetbrains.annotations.NotNull;
+
+public class LattePhpMethodStubIndex extends StringStubIndexExtension<LattePhpMethod> {
+	public static final StubIndexKey<String, LattePhpMethod> KEY = StubIndexKey.createIndexKey("latte.method");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LattePhpMethod> getKey() {
+		return KEY;
+	}
+}
@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LattePhpProperty;
+import org.jetbrains.annotations.NotNull;
+
+public class LattePhpPropertyStubIndex extends StringStubIndexExtension<LattePhpProperty> {
+	public static final StubIndexKey<String, LattePhpProperty> KEY = StubIndexKey.createIndexKey("latte.property");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LattePhpProperty> getKey() {
+		return KEY;
+	}
+}
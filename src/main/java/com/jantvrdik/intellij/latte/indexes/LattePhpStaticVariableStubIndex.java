@@ -0,0 +1,16 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.jantvrdik.intellij.latte.psi.LattePhpStaticVariable;
+import org.jetbrains.annotations.NotNull;
+
+public class LattePhpStaticVariableStubIndex extends StringStubIndexExtension<LattePhpStaticVariable> {
+	public static final StubIndexKey<String, LattePhpStaticVariable> KEY = StubIndexKey.createIndexKey("latte.staticVariable");
+
+	@NotNull
+	@Override
+	public StubIndexKey<String, LattePhpStaticVariable> getKey() {
+		return KEY;
+	}
+}
@@ -0,0 +1,140 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.psi.LatteFile;
+import com.jantvrdik.intellij.latte.psi.LatteMacroContent;
+import com.jantvrdik.intellij.latte.psi.LatteMacroTag;
+import com.jantvrdik.intellij.latte.psi.LatteMacroCloseTag;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexes templates referenced by {include}, {extends}, {layout}, {import}, {embed}... by their file name.
+ *
+ * Only static paths are indexed, the paths are resolved relative to the referencing template (see LatteTemplateGraph).
+ */
+public class LatteTemplateIndex extends FileBasedIndexExtension<String, LatteTemplateUsage> {
+	public static final ID<String, LatteTemplateUsage> KEY = ID.create("com.jantvrdik.intellij.latte.indexes.LatteTemplateIndex");
+
+	private static final Map<String, Integer> MACROS = new HashMap<String, Integer>();
+
+	static {
+		MACROS.put("include", LatteTemplateUsage.INCLUDE);
+		MACROS.put("includeblock", LatteTemplateUsage.INCLUDE);
+		MACROS.put("sandbox", LatteTemplateUsage.INCLUDE);
+		MACROS.put("extends", LatteTemplateUsage.EXTENDS);
+		MACROS.put("layout", LatteTemplateUsage.EXTENDS);
+		MACROS.put("import", LatteTemplateUsage.IMPORT);
+		MACROS.put("embed", LatteTemplateUsage.EMBED);
+	}
+
+	@NotNull
+	@Override
+	public ID<String, LatteTemplateUsage> getName() {
+		return KEY;
+	}
+
+	@NotNull
+	@Override
+	public DataIndexer<String, LatteTemplateUsage, FileContent> getIndexer() {
+		return inputData -> {
+			PsiFile psiFile = inputData.getPsiFile();
+			if (!(psiFile instanceof LatteFile)) {
+				return Collections.emptyMap();
+			}
+
+			Map<String, LatteTemplateUsage> map = new HashMap<String, LatteTemplateUsage>();
+			for (LatteMacroTag tag : PsiTreeUtil.findChildrenOfType(psiFile, LatteMacroTag.class)) {
+				Integer kind = tag instanceof LatteMacroCloseTag ? null : MACROS.get(tag.getMacroName());
+				LatteMacroContent content = kind != null ? tag.getMacroContent() : null;
+				String path = content != null ? parseTemplatePath(content.getText()) : null;
+				if (path != null) {
+					map.computeIfAbsent(getFileName(path), k -> new LatteTemplateUsage()).add(path, kind);
+				}
+			}
+			return map;
+		};
+	}
+
+	@NotNull
+	@Override
+	public KeyDescriptor<String> getKeyDescriptor() {
+		return EnumeratorStringDescriptor.INSTANCE;
+	}
+
+	@NotNull
+	@Override
+	public DataExternalizer<LatteTemplateUsage> getValueExternalizer() {
+		return LatteTemplateUsage.EXTERNALIZER;
+	}
+
+	@Override
+	public int getVersion() {
+		return 1;
+	}
+
+	@NotNull
+	@Override
+	public FileBasedIndex.InputFilter getInputFilter() {
+		return new DefaultFileTypeSpecificInputFilter(LatteFileType.INSTANCE);
+	}
+
+	@Override
+	public boolean dependsOnFileContent() {
+		return true;
+	}
+
+	@NotNull
+	public static String getFileName(@NotNull String path) {
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Returns static template path from content of {include} like tags, null for blocks, variables and expressions.
+	 *
+	 * Supported forms are {include 'file.latte'}, {include "file.latte", foo => 1}, {include file.latte} and {include file 'file.latte'}.
+	 */
+	@Nullable
+	public static String parseTemplatePath(@NotNull String content) {
+		String text = content.trim();
+		if (text.startsWith("file ")) {
+			text = text.substring(5).trim();
+		} else if (text.startsWith("block ") || text.startsWith("#")) {
+			return null;
+		}
+
+		String path;
+		if (text.startsWith("'") || text.startsWith("\"")) {
+			int end = text.indexOf(text.charAt(0), 1);
+			if (end < 0) {
+				return null;
+			}
+			path = text.substring(1, end);
+			if (path.contains("$") || path.contains("{")) {
+				return null;
+			}
+
+		} else {
+			int end = 0;
+			while (end < text.length() && !Character.isWhitespace(text.charAt(end)) && ",|".indexOf(text.charAt(end)) < 0) {
+				end++;
+			}
+			path = text.substring(0, end);
+			if (path.startsWith("$") || path.contains("(") || (!path.contains(".") && !path.contains("/"))) {
+				// variable, expression or block name
+				return null;
+			}
+		}
+		return path.length() == 0 ? null : path;
+	}
+}
@@ -0,0 +1,66 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.util.io.DataExternalizer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Templates with one file name referenced from one Latte file: paths as written in the template and kinds of tags using them.
+ */
+public class LatteTemplateUsage {
+	public static final int INCLUDE = 1;
+	public static final int EXTENDS = 2;
+	public static final int IMPORT = 4;
+	public static final int EMBED = 8;
+	public static final int ALL = INCLUDE | EXTENDS | IMPORT | EMBED;
+
+	public static final DataExternalizer<LatteTemplateUsage> EXTERNALIZER = new DataExternalizer<LatteTemplateUsage>() {
+		@Override
+		public void save(@NotNull DataOutput out, LatteTemplateUsage value) throws IOException {
+			out.writeInt(value.paths.size());
+			for (Map.Entry<String, Integer> entry : value.paths.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue());
+			}
+		}
+
+		@Override
+		public LatteTemplateUsage read(@NotNull DataInput in) throws IOException {
+			LatteTemplateUsage value = new LatteTemplateUsage();
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				value.paths.put(in.readUTF(), in.readInt());
+			}
+			return value;
+		}
+	};
+
+	private final Map<String, Integer> paths = new TreeMap<String, Integer>();
+
+	void add(@NotNull String path, int kind) {
+		paths.merge(path, kind, (a, b) -> a | b);
+	}
+
+	/**
+	 * @return kinds of usages by path relative to the referencing template
+	 */
+	public Map<String, Integer> getPaths() {
+		return Collections.unmodifiableMap(paths);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof LatteTemplateUsage && paths.equals(((LatteTemplateUsage) obj).paths);
+	}
+
+	@Override
+	public int hashCode() {
+		return paths.hashCode();
+	}
+}
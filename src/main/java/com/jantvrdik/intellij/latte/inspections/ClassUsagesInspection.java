@@ -1,12 +1,11 @@
 package com.jantvrdik.intellij.latte.inspections;
 
 import com.intellij.codeInspection.*;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LattePhpClass;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -27,24 +26,21 @@ public class ClassUsagesInspection extends LocalInspectionTool {
 		if (!(file instanceof LatteFile)) {
 			return null;
 		}
+		return LatteInspectionResultCache.getInstance(file.getProject())
+				.checkFile(this, (LatteFile) file, manager, isOnTheFly, () -> checkLatteFile((LatteFile) file, manager, isOnTheFly));
+	}
 
+	@NotNull
+	private ProblemDescriptor[] checkLatteFile(@NotNull LatteFile file, @NotNull final InspectionManager manager, final boolean isOnTheFly) {
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LattePhpClass) {
-					String className = ((LattePhpClass) element).getClassName();
-					if (LattePhpUtil.getClassesByFQN(element.getProject(), className).size() == 0) {
-						String description = "Undefined class '" + className + "'";
-						ProblemDescriptor problem = manager.createProblemDescriptor(element, description, true, ProblemHighlightType.GENERIC_ERROR, isOnTheFly);
-						problems.add(problem);
-					}
-
-				} else {
-					super.visitElement(element);
-				}
+		for (LattePhpClass element : LatteFileElements.getInstance(file).getClasses()) {
+			String className = element.getClassName();
+			if (LattePhpUtil.getClassesByFQN(element.getProject(), className).size() == 0) {
+				String description = "Undefined class '" + className + "'";
+				ProblemDescriptor problem = manager.createProblemDescriptor(element, description, true, ProblemHighlightType.GENERIC_ERROR, isOnTheFly);
+				problems.add(problem);
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
@@ -6,10 +6,11 @@ import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LattePhpConstant;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
+import com.jantvrdik.intellij.latte.utils.LattePhpClassMembers;
 import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.PhpModifier;
@@ -34,45 +35,38 @@ public class ConstantUsagesInspection extends LocalInspectionTool {
 		if (!(file instanceof LatteFile)) {
 			return null;
 		}
+		return LatteInspectionResultCache.getInstance(file.getProject())
+				.checkFile(this, (LatteFile) file, manager, isOnTheFly, () -> checkLatteFile((LatteFile) file, manager, isOnTheFly));
+	}
 
+	@NotNull
+	private ProblemDescriptor[] checkLatteFile(@NotNull LatteFile file, @NotNull final InspectionManager manager, final boolean isOnTheFly) {
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LattePhpConstant) {
-					LattePhpType phpType = ((LattePhpConstant) element).getPhpType();
-
-					Collection<PhpClass> phpClasses = phpType.getPhpClasses(element.getProject());
-					if (phpClasses == null) {
-						return;
-					}
-
-					boolean isFound = false;
-					String constantName = ((LattePhpConstant) element).getConstantName();
-					for (PhpClass phpClass : phpClasses) {
-						for (Field field : phpClass.getFields()) {
-							if (field.isConstant() && field.getName().equals(constantName)) {
-								PhpModifier modifier = field.getModifier();
-								if (modifier.isPrivate()) {
-									addProblem(manager, problems, element, "Used private constant '" + constantName + "'", isOnTheFly);
+		for (LattePhpConstant element : LatteFileElements.getInstance(file).getConstants()) {
+			LattePhpType phpType = element.getPhpType();
 
-								} else if (modifier.isProtected()) {
-									addProblem(manager, problems, element, "Used protected constant '" + constantName + "'", isOnTheFly);
-								}
-								isFound = true;
-							}
-						}
-					}
+			Collection<PhpClass> phpClasses = phpType.getPhpClasses(element.getProject());
+			if (phpClasses == null) {
+				continue;
+			}
 
-					if (!isFound) {
-						addProblem(manager, problems, element, "Constant '" + constantName + "' not found", ProblemHighlightType.GENERIC_ERROR, isOnTheFly);
-					}
+			boolean isFound = false;
+			String constantName = element.getConstantName();
+			for (Field field : LattePhpClassMembers.findFields(phpClasses, constantName, true)) {
+				PhpModifier modifier = field.getModifier();
+				if (modifier.isPrivate()) {
+					addProblem(manager, problems, element, "Used private constant '" + constantName + "'", isOnTheFly);
 
-				} else {
-					super.visitElement(element);
+				} else if (modifier.isProtected()) {
+					addProblem(manager, problems, element, "Used protected constant '" + constantName + "'", isOnTheFly);
 				}
+				isFound = true;
+			}
+
+			if (!isFound) {
+				addProblem(manager, problems, element, "Constant '" + constantName + "' not found", ProblemHighlightType.GENERIC_ERROR, isOnTheFly);
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
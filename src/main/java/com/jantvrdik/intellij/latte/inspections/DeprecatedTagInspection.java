@@ -4,13 +4,12 @@ import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.config.LatteMacro;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LatteMacroTag;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -32,23 +31,15 @@ public class DeprecatedTagInspection extends LocalInspectionTool {
 			return null;
 		}
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LatteMacroTag) {
-					String macroName = ((LatteMacroTag) element).getMacroName();
-					LatteMacro macro = LatteConfiguration.INSTANCE.getMacro(element.getProject(), macroName);
-					if (macro != null && macro.deprecated) {
-						String description = macro.deprecatedMessage != null ? macro.deprecatedMessage : "Tag {" + macroName + "} is deprecated";
-						ProblemDescriptor problem = manager.createProblemDescriptor(element, description, true, ProblemHighlightType.LIKE_DEPRECATED, isOnTheFly);
-						problems.add(problem);
-
-					}
-				} else {
-					super.visitElement(element);
-				}
+		for (LatteMacroTag element : LatteFileElements.getInstance((LatteFile) file).getMacroTags()) {
+			String macroName = element.getMacroName();
+			LatteMacro macro = LatteConfiguration.INSTANCE.getMacro(element.getProject(), macroName);
+			if (macro != null && macro.deprecated) {
+				String description = macro.deprecatedMessage != null ? macro.deprecatedMessage : "Tag {" + macroName + "} is deprecated";
+				ProblemDescriptor problem = manager.createProblemDescriptor(element, description, true, ProblemHighlightType.LIKE_DEPRECATED, isOnTheFly);
+				problems.add(problem);
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
@@ -0,0 +1,550 @@
+package com.jantvrdik.intellij.latte.inspections;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.QuickFix;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeAnyChangeAbstractAdapter;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.Alarm;
+import com.intellij.util.PathUtil;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.PersistentHashMap;
+import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.config.LatteConfigurationSnapshot;
+import com.jantvrdik.intellij.latte.config.LatteMacro;
+import com.jantvrdik.intellij.latte.psi.LatteFile;
+import com.jantvrdik.intellij.latte.settings.LatteCustomFunctionSettings;
+import com.jantvrdik.intellij.latte.settings.LatteSettings;
+import com.jantvrdik.intellij.latte.settings.LatteVariableSettings;
+import com.jetbrains.php.lang.PhpFileType;
+import com.jetbrains.php.lang.psi.PhpFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Results of Latte inspections persisted in system directory, so unchanged templates are highlighted right after project is opened.
+ *
+ * Result is reused when the template has the same content hash, the same Latte settings and the same PHP generation.
+ * PHP generation is a random id replaced after any change of PHP code: PSI change of PHP file (including unsaved edits)
+ * or VFS change of PHP file or of directory with PHP files. Checking it costs nothing, templates do not resolve their
+ * PHP types for it.
+ * Generation is stored together with fingerprint of all PHP files (paths, timestamps and lengths). The fingerprint is
+ * computed in background after project is opened (stored results are not used before it is compared, to detect changes
+ * made while the project was closed) and again after PHP files were changed, never on highlighting threads.
+ * Generation used while some PHP document is unsaved is never stored, its results are not reused after restart.
+ *
+ * Results with quick fixes or with ranges inside of elements are not stored, these templates are always inspected.
+ */
+public class LatteInspectionResultCache implements Disposable {
+
+	private static final Logger LOG = Logger.getInstance(LatteInspectionResultCache.class);
+
+	private static final int VERSION = 2;
+	private static final int FINGERPRINT_DELAY = 1000;
+
+	private static final Key<CachedValue<String>> CONTENT_HASH_KEY = Key.create("LATTE_INSPECTION_CONTENT_HASH");
+	private static final Key<CachedValue<String>> SETTINGS_HASH_KEY = Key.create("LATTE_INSPECTION_SETTINGS_HASH");
+
+	private final Project project;
+	private final File file;
+	private final File generationFile;
+	private final Alarm fingerprintAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+
+	/** guarded by this, map is closed and replaced only under the lock */
+	@Nullable
+	private PersistentHashMap<String, Result> results;
+
+	private String generation;
+	/** fingerprint stored with the generation, until it is verified after opening the project */
+	@Nullable
+	private Long fingerprint;
+	private boolean fingerprintVerified = false;
+	/** incremented by every change of PHP files, fingerprint computed meanwhile is outdated */
+	private long filesChangeCount = 0;
+	private boolean generationUsed = true;
+
+	public LatteInspectionResultCache(@NotNull Project project) {
+		this.project = project;
+		File directory = new File(PathManager.getSystemPath(), "latte/inspections/" + project.getLocationHash());
+		file = new File(directory, "results.v" + VERSION);
+		generationFile = new File(directory, "generation.v" + VERSION);
+		results = open(file);
+		loadGeneration();
+		if (hasUnsavedPhpDocuments()) {
+			phpChanged();
+		}
+
+		PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeAnyChangeAbstractAdapter() {
+			@Override
+			protected void onChange(@Nullable PsiFile file) {
+				if (file instanceof PhpFile) {
+					phpChanged();
+				}
+			}
+		}, this);
+		project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+			@Override
+			public void before(@NotNull List<? extends VFileEvent> events) {
+				// deleted directory has no children after the event
+				for (VFileEvent event : events) {
+					if (event instanceof VFileDeleteEvent && isPhpEvent(event)) {
+						phpFilesChanged();
+						return;
+					}
+				}
+			}
+
+			@Override
+			public void after(@NotNull List<? extends VFileEvent> events) {
+				for (VFileEvent event : events) {
+					if (!(event instanceof VFileDeleteEvent) && isPhpEvent(event)) {
+						phpFilesChanged();
+						return;
+					}
+				}
+			}
+		});
+		DumbService.getInstance(project).runWhenSmart(this::scheduleFingerprint);
+	}
+
+	public static LatteInspectionResultCache getInstance(@NotNull Project project) {
+		return ServiceManager.getService(project, LatteInspectionResultCache.class);
+	}
+
+	/**
+	 * @param inspection computes problems when there is no valid stored result
+	 */
+	@NotNull
+	public ProblemDescriptor[] checkFile(
+			@NotNull LocalInspectionTool tool,
+			@NotNull LatteFile file,
+			@NotNull InspectionManager manager,
+			boolean isOnTheFly,
+			@NotNull Supplier<ProblemDescriptor[]> inspection
+	) {
+		VirtualFile virtualFile = file.getVirtualFile();
+		String generation = virtualFile != null ? useGeneration() : null;
+		if (generation == null) {
+			return inspection.get();
+		}
+
+		String key = tool.getShortName() + "|" + virtualFile.getUrl();
+		String contentHash = getContentHash(file);
+		String dependenciesHash = hash(Arrays.asList(generation, getSettingsHash(file.getProject())));
+		try {
+			Result stored = get(key);
+			if (stored != null && stored.contentHash.equals(contentHash) && stored.dependenciesHash.equals(dependenciesHash)) {
+				ProblemDescriptor[] restored = stored.restore(file, manager, isOnTheFly);
+				if (restored != null) {
+					return restored;
+				}
+			}
+
+			ProblemDescriptor[] problems = inspection.get();
+			Result result = Result.create(contentHash, dependenciesHash, problems);
+			if (result != null) {
+				put(key, result);
+			} else if (stored != null) {
+				remove(key);
+			}
+			return problems;
+
+		} catch (IOException e) {
+			LOG.warn("Latte inspection results cache is corrupted, it will be recreated.", e);
+			recreate();
+			return inspection.get();
+		}
+	}
+
+	@Override
+	public synchronized void dispose() {
+		close();
+	}
+
+	@Nullable
+	private synchronized Result get(@NotNull String key) throws IOException {
+		return results != null ? results.get(key) : null;
+	}
+
+	private synchronized void put(@NotNull String key, @NotNull Result result) throws IOException {
+		if (results != null) {
+			results.put(key, result);
+		}
+	}
+
+	private synchronized void remove(@NotNull String key) throws IOException {
+		if (results != null) {
+			results.remove(key);
+		}
+	}
+
+	private synchronized void recreate() {
+		close();
+		PersistentHashMap.deleteFilesStartingWith(file);
+		results = open(file);
+	}
+
+	private void close() {
+		if (results != null) {
+			try {
+				results.close();
+			} catch (IOException e) {
+				LOG.warn(e);
+			}
+			results = null;
+		}
+	}
+
+	/**
+	 * Current PHP generation is replaced when it was already used for some result.
+	 */
+	private synchronized void phpChanged() {
+		if (generationUsed) {
+			generation = UUID.randomUUID().toString();
+			generationUsed = false;
+		}
+	}
+
+	private void phpFilesChanged() {
+		synchronized (this) {
+			filesChangeCount++;
+		}
+		phpChanged();
+		scheduleFingerprint();
+	}
+
+	/**
+	 * @return null until stored fingerprint is verified
+	 */
+	@Nullable
+	private synchronized String useGeneration() {
+		if (!fingerprintVerified) {
+			return null;
+		}
+		generationUsed = true;
+		return generation;
+	}
+
+	private void scheduleFingerprint() {
+		fingerprintAlarm.cancelAllRequests();
+		fingerprintAlarm.addRequest(this::updateFingerprint, FINGERPRINT_DELAY);
+	}
+
+	/**
+	 * Runs on pooled thread of the alarm, outside of the lock, so highlighting threads do not wait for it.
+	 */
+	private void updateFingerprint() {
+		long changeCount;
+		synchronized (this) {
+			changeCount = filesChangeCount;
+		}
+		Long current = ReadAction.nonBlocking(() -> DumbService.isDumb(project) ? null : computeFingerprint(project)).executeSynchronously();
+		if (current == null) {
+			DumbService.getInstance(project).runWhenSmart(this::scheduleFingerprint);
+			return;
+		}
+		boolean storable = !hasUnsavedPhpDocuments();
+
+		String storedGeneration;
+		synchronized (this) {
+			if (changeCount != filesChangeCount) {
+				// files were changed meanwhile, another computation is scheduled
+				return;
+			}
+			if (!fingerprintVerified && !current.equals(fingerprint)) {
+				generation = UUID.randomUUID().toString();
+				generationUsed = false;
+			}
+			fingerprintVerified = true;
+			fingerprint = current;
+			storedGeneration = storable ? generation : null;
+		}
+		if (storedGeneration != null) {
+			storeGeneration(storedGeneration, current);
+		}
+	}
+
+	private static long computeFingerprint(@NotNull Project project) {
+		long fingerprint = 0;
+		for (VirtualFile file : FileTypeIndex.getFiles(PhpFileType.INSTANCE, GlobalSearchScope.allScope(project))) {
+			// sum does not depend on order of files
+			fingerprint += (file.getPath().hashCode() * 31L + file.getTimeStamp()) * 31L + file.getLength();
+		}
+		return fingerprint;
+	}
+
+	private static boolean hasUnsavedPhpDocuments() {
+		FileDocumentManager documentManager = FileDocumentManager.getInstance();
+		for (Document document : documentManager.getUnsavedDocuments()) {
+			VirtualFile file = documentManager.getFile(document);
+			if (file != null && file.getFileType() == PhpFileType.INSTANCE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isPhpEvent(@NotNull VFileEvent event) {
+		VirtualFile file = event.getFile();
+		if (file != null && file.isValid() && file.isDirectory()) {
+			return containsPhpFiles(file);
+		}
+		if (event instanceof VFilePropertyChangeEvent && isPhpPath(((VFilePropertyChangeEvent) event).getOldPath())) {
+			return true;
+		}
+		return isPhpPath(event.getPath());
+	}
+
+	/**
+	 * Only for events of directories, which are rare compared to events of files.
+	 */
+	private static boolean containsPhpFiles(@NotNull VirtualFile directory) {
+		return !VfsUtilCore.iterateChildrenRecursively(directory, null, file -> file.isDirectory() || file.getFileType() != PhpFileType.INSTANCE);
+	}
+
+	private static boolean isPhpPath(@NotNull String path) {
+		return FileTypeRegistry.getInstance().getFileTypeByFileName(PathUtil.getFileName(path)) == PhpFileType.INSTANCE;
+	}
+
+	private void loadGeneration() {
+		try {
+			if (generationFile.isFile()) {
+				String[] parts = FileUtil.loadFile(generationFile, StandardCharsets.UTF_8).trim().split(":");
+				if (parts.length == 2) {
+					generation = parts[0];
+					fingerprint = Long.parseLong(parts[1]);
+					return;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			LOG.warn("Can not read Latte inspection results generation.", e);
+		}
+		generation = UUID.randomUUID().toString();
+		fingerprint = null;
+		generationUsed = false;
+	}
+
+	private void storeGeneration(@NotNull String generation, long fingerprint) {
+		try {
+			FileUtil.writeToFile(generationFile, generation + ":" + fingerprint);
+		} catch (IOException e) {
+			LOG.warn("Can not store Latte inspection results generation.", e);
+		}
+	}
+
+	@Nullable
+	private static PersistentHashMap<String, Result> open(@NotNull File file) {
+		try {
+			FileUtil.createParentDirs(file);
+			return new PersistentHashMap<String, Result>(file, EnumeratorStringDescriptor.INSTANCE, Result.EXTERNALIZER);
+		} catch (IOException e) {
+			LOG.warn("Can not open Latte inspection results cache, results will not be stored.", e);
+			PersistentHashMap.deleteFilesStartingWith(file);
+			return null;
+		}
+	}
+
+	@NotNull
+	private static String getContentHash(@NotNull LatteFile file) {
+		return CachedValuesManager.getCachedValue(file, CONTENT_HASH_KEY, () -> CachedValueProvider.Result.create(
+				hash(Collections.singletonList(file.getText())),
+				file
+		));
+	}
+
+	@NotNull
+	private static String getSettingsHash(@NotNull Project project) {
+		return CachedValuesManager.getManager(project).getCachedValue(project, SETTINGS_HASH_KEY, () -> CachedValueProvider.Result.create(
+				hash(collectSettings(project)),
+				LatteSettings.getInstance(project)
+		), false);
+	}
+
+	@NotNull
+	private static List<String> collectSettings(@NotNull Project project) {
+		List<String> settings = new ArrayList<String>();
+		LatteConfigurationSnapshot configuration = LatteConfiguration.INSTANCE.getSnapshot(project);
+		for (LatteMacro macro : configuration.getCustomMacros().values()) {
+			settings.add("macro:" + macro.name + ":" + macro.type);
+		}
+		for (String modifier : configuration.getCustomModifiers().keySet()) {
+			settings.add("modifier:" + modifier);
+		}
+		for (LatteCustomFunctionSettings function : configuration.getFunctions()) {
+			settings.add("function:" + function.getFunctionName() + ":" + function.getFunctionReturnType());
+		}
+		for (LatteVariableSettings variable : configuration.getVariables()) {
+			settings.add("variable:" + variable.getVarName() + ":" + variable.getVarType());
+		}
+		return settings;
+	}
+
+	@NotNull
+	private static String hash(@NotNull Collection<String> values) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			for (String value : values) {
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) 0);
+			}
+			return StringUtil.toHexString(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Stored problems of one inspection in one template: range and element type of the problem element, message and highlight type.
+	 */
+	private static class Result {
+		private static final DataExternalizer<Result> EXTERNALIZER = new DataExternalizer<Result>() {
+			@Override
+			public void save(@NotNull DataOutput out, Result value) throws IOException {
+				IOUtil.writeUTF(out, value.contentHash);
+				IOUtil.writeUTF(out, value.dependenciesHash);
+				out.writeInt(value.starts.length);
+				for (int i = 0; i < value.starts.length; i++) {
+					out.writeInt(value.starts[i]);
+					out.writeInt(value.ends[i]);
+					IOUtil.writeUTF(out, value.elementTypes[i]);
+					IOUtil.writeUTF(out, value.messages[i]);
+					IOUtil.writeUTF(out, value.highlightTypes[i]);
+				}
+			}
+
+			@Override
+			public Result read(@NotNull DataInput in) throws IOException {
+				String contentHash = IOUtil.readUTF(in);
+				String dependenciesHash = IOUtil.readUTF(in);
+				Result value = new Result(contentHash, dependenciesHash, in.readInt());
+				for (int i = 0; i < value.starts.length; i++) {
+					value.starts[i] = in.readInt();
+					value.ends[i] = in.readInt();
+					value.elementTypes[i] = IOUtil.readUTF(in);
+					value.messages[i] = IOUtil.readUTF(in);
+					value.highlightTypes[i] = IOUtil.readUTF(in);
+				}
+				return value;
+			}
+		};
+
+		private final String contentHash;
+		private final String dependenciesHash;
+		private final int[] starts;
+		private final int[] ends;
+		private final String[] elementTypes;
+		private final String[] messages;
+		private final String[] highlightTypes;
+
+		private Result(@NotNull String contentHash, @NotNull String dependenciesHash, int size) {
+			this.contentHash = contentHash;
+			this.dependenciesHash = dependenciesHash;
+			starts = new int[size];
+			ends = new int[size];
+			elementTypes = new String[size];
+			messages = new String[size];
+			highlightTypes = new String[size];
+		}
+
+		/**
+		 * @return null if some problem can not be restored from stored data
+		 */
+		@Nullable
+		static Result create(@NotNull String contentHash, @NotNull String dependenciesHash, @Nullable ProblemDescriptor[] problems) {
+			Result result = new Result(contentHash, dependenciesHash, problems != null ? problems.length : 0);
+			for (int i = 0; i < result.starts.length; i++) {
+				ProblemDescriptor problem = problems[i];
+				PsiElement element = problem.getStartElement();
+				QuickFix[] fixes = problem.getFixes();
+				if (element == null || element != problem.getEndElement() || problem.getTextRangeInElement() != null || (fixes != null && fixes.length > 0)) {
+					return null;
+				}
+
+				TextRange range = element.getTextRange();
+				result.starts[i] = range.getStartOffset();
+				result.ends[i] = range.getEndOffset();
+				result.elementTypes[i] = element.getNode().getElementType().toString();
+				result.messages[i] = problem.getDescriptionTemplate();
+				result.highlightTypes[i] = problem.getHighlightType().name();
+			}
+			return result;
+		}
+
+		@Nullable
+		ProblemDescriptor[] restore(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+			ProblemDescriptor[] problems = new ProblemDescriptor[starts.length];
+			for (int i = 0; i < starts.length; i++) {
+				PsiElement element = findElement(file, i);
+				if (element == null) {
+					return null;
+				}
+				ProblemHighlightType type;
+				try {
+					type = ProblemHighlightType.valueOf(highlightTypes[i]);
+				} catch (IllegalArgumentException e) {
+					return null;
+				}
+				problems[i] = manager.createProblemDescriptor(element, messages[i], true, type, isOnTheFly);
+			}
+			return problems;
+		}
+
+		@Nullable
+		private PsiElement findElement(@NotNull PsiFile file, int index) {
+			PsiElement element = file.findElementAt(starts[index]);
+			while (element != null && !(element instanceof PsiFile)) {
+				TextRange range = element.getTextRange();
+				if (range.getStartOffset() != starts[index] || range.getEndOffset() > ends[index]) {
+					return null;
+				}
+				if (range.getEndOffset() == ends[index] && element.getNode().getElementType().toString().equals(elementTypes[index])) {
+					return element;
+				}
+				element = element.getParent();
+			}
+			return null;
+		}
+	}
+}
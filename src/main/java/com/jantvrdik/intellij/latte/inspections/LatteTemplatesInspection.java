@@ -0,0 +1,131 @@
+package com.jantvrdik.intellij.latte.inspections;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefElement;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import com.jantvrdik.intellij.latte.psi.LatteFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Global variant of Latte local inspections for Inspect Code and offline inspections of the whole project.
+ *
+ * Templates of analysed scope are processed concurrently (JobLauncher), each one in a non-blocking read action.
+ * Local inspections are created once and run on every template, so all workers share per-file LatteFileElements
+ * and project-wide LattePhpClassMembers tables instead of re-creating state for each file.
+ * Disabled by default, it is meant for profiles with local Latte inspections disabled, otherwise problems are reported twice.
+ */
+public class LatteTemplatesInspection extends GlobalInspectionTool {
+
+	@NotNull
+	@Override
+	public String getShortName() {
+		return "LatteTemplates";
+	}
+
+	@Override
+	public boolean isGraphNeeded() {
+		return false;
+	}
+
+	@Override
+	public void runInspection(
+			@NotNull AnalysisScope scope,
+			@NotNull InspectionManager manager,
+			@NotNull GlobalInspectionContext globalContext,
+			@NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor
+	) {
+		Project project = globalContext.getProject();
+		List<LocalInspectionTool> tools = getLatteInspections();
+		List<VirtualFile> files = findLatteFiles(scope);
+
+		ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+		JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator != null ? indicator : new EmptyProgressIndicator(), file -> {
+			// non-blocking read action can be restarted, so problems are reported after it finishes
+			Pair<RefElement, List<ProblemDescriptor>> result = ReadAction.nonBlocking(
+					() -> checkFile(project, file, tools, manager, globalContext)
+			).executeSynchronously();
+			if (result != null && !result.second.isEmpty()) {
+				synchronized (problemDescriptionsProcessor) {
+					problemDescriptionsProcessor.addProblemElement(result.first, result.second.toArray(new CommonProblemDescriptor[0]));
+				}
+			}
+			return true;
+		});
+	}
+
+	@Nullable
+	private static Pair<RefElement, List<ProblemDescriptor>> checkFile(
+			@NotNull Project project,
+			@NotNull VirtualFile file,
+			@NotNull List<LocalInspectionTool> tools,
+			@NotNull InspectionManager manager,
+			@NotNull GlobalInspectionContext globalContext
+	) {
+		PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+		if (!(psiFile instanceof LatteFile)) {
+			return null;
+		}
+
+		RefElement refFile = globalContext.getRefManager().getReference(psiFile);
+		if (refFile == null) {
+			return null;
+		}
+
+		List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
+		for (LocalInspectionTool tool : tools) {
+			ProblemDescriptor[] descriptors = tool.checkFile(psiFile, manager, false);
+			if (descriptors != null) {
+				Collections.addAll(problems, descriptors);
+			}
+		}
+		return Pair.create(refFile, problems);
+	}
+
+	/**
+	 * Tools are created once and shared by all workers, Latte inspections do not keep any state.
+	 */
+	@NotNull
+	private static List<LocalInspectionTool> getLatteInspections() {
+		List<LocalInspectionTool> out = new ArrayList<LocalInspectionTool>();
+		for (LocalInspectionEP inspection : LocalInspectionEP.LOCAL_INSPECTION.getExtensionList()) {
+			if (!LatteLanguage.INSTANCE.getID().equals(inspection.language)) {
+				continue;
+			}
+
+			InspectionProfileEntry tool = inspection.instantiateTool();
+			if (tool instanceof LocalInspectionTool) {
+				out.add((LocalInspectionTool) tool);
+			}
+		}
+		return out;
+	}
+
+	@NotNull
+	private static List<VirtualFile> findLatteFiles(@NotNull AnalysisScope scope) {
+		List<VirtualFile> files = new ArrayList<VirtualFile>();
+		ReadAction.run(() -> scope.accept(file -> {
+			if (file.getFileType() == LatteFileType.INSTANCE) {
+				files.add(file);
+			}
+			return true;
+		}));
+		return files;
+	}
+}
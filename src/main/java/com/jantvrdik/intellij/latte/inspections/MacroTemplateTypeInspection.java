@@ -4,13 +4,12 @@ import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LatteMacroTag;
 import com.jantvrdik.intellij.latte.psi.LattePhpClass;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,42 +32,33 @@ public class MacroTemplateTypeInspection extends LocalInspectionTool {
 		}
 
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LatteMacroTag && ((LatteMacroTag) element).matchMacroName("templateType")) {
-					List<LatteMacroTag> allMacros = new ArrayList<LatteMacroTag>();
-					LatteUtil.findLatteMacroTemplateType(allMacros, (LatteFile) file);
-					if (allMacros.size() > 1) {
-						ProblemDescriptor problem = manager.createProblemDescriptor(
-								element,
-								"Tag {templateType} can be used only once per file.",
-								true,
-								ProblemHighlightType.GENERIC_ERROR,
-								isOnTheFly
-						);
-						problems.add(problem);
+		List<LatteMacroTag> allMacros = LatteFileElements.getInstance((LatteFile) file).getMacroTags("templateType");
+		for (LatteMacroTag element : allMacros) {
+			if (allMacros.size() > 1) {
+				ProblemDescriptor problem = manager.createProblemDescriptor(
+						element,
+						"Tag {templateType} can be used only once per file.",
+						true,
+						ProblemHighlightType.GENERIC_ERROR,
+						isOnTheFly
+				);
+				problems.add(problem);
 
-					} else {
-						List<LattePhpClass> currentClasses = new ArrayList<LattePhpClass>();
-						LatteUtil.findLatteTemplateType(currentClasses, element);
-						if (currentClasses.size() == 0) {
-							ProblemDescriptor problem = manager.createProblemDescriptor(
-									element,
-									"Invalid class name in tag {templateType}.",
-									true,
-									ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
-									isOnTheFly
-							);
-							problems.add(problem);
-						}
-					}
-
-				} else {
-					super.visitElement(element);
+			} else {
+				List<LattePhpClass> currentClasses = new ArrayList<LattePhpClass>();
+				LatteUtil.findLatteTemplateType(currentClasses, element);
+				if (currentClasses.size() == 0) {
+					ProblemDescriptor problem = manager.createProblemDescriptor(
+							element,
+							"Invalid class name in tag {templateType}.",
+							true,
+							ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+							isOnTheFly
+					);
+					problems.add(problem);
 				}
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
@@ -11,6 +11,7 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jantvrdik.intellij.latte.psi.*;
 import com.jantvrdik.intellij.latte.utils.LatteTypesUtil;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,56 +34,48 @@ public class MacroVarInspection extends LocalInspectionTool {
 		}
 
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LatteMacroTag && ((LatteMacroTag) element).matchMacroName("var")) {
-					LatteMacroContent macroContent = PsiTreeUtil.findChildOfType(element, LatteMacroContent.class);
-					if (macroContent != null) {
-						List<LattePhpContent> phpContent = new ArrayList<>(macroContent.getPhpContentList());
+		for (LatteMacroTag element : LatteFileElements.getInstance((LatteFile) file).getMacroTags("var")) {
+			LatteMacroContent macroContent = PsiTreeUtil.findChildOfType(element, LatteMacroContent.class);
+			if (macroContent != null) {
+				List<LattePhpContent> phpContent = new ArrayList<>(macroContent.getPhpContentList());
 
-						if (phpContent.size() == 0) {
-							addError("Tag {var} must have php content.", problems, element, manager, isOnTheFly);
+				if (phpContent.size() == 0) {
+					addError("Tag {var} must have php content.", problems, element, manager, isOnTheFly);
 
-						} else {
-							Result result = new Result();
-							for (LattePhpContent content : phpContent) {
-								content.accept(new PsiRecursiveElementWalkingVisitor() {
-									@Override
-									public void visitElement(PsiElement element) {
-										IElementType type = element.getNode().getElementType();
-										if (LatteTypesUtil.getAllTypeHintTokens().contains(type)) {
-
-										} else if (type == LatteTypes.PHP_VARIABLE) {
-											result.hasValidVariable = true;
-
-										} else {
-											super.visitElement(element);
-											if (type != LatteTypes.PHP_CONTENT && !element.getText().equals("|")) {
-												if (!result.hasValidVariable) {
-													result.beforeVarCount++;
-												}
-											}
+				} else {
+					Result result = new Result();
+					for (LattePhpContent content : phpContent) {
+						content.accept(new PsiRecursiveElementWalkingVisitor() {
+							@Override
+							public void visitElement(PsiElement element) {
+								IElementType type = element.getNode().getElementType();
+								if (LatteTypesUtil.getAllTypeHintTokens().contains(type)) {
+
+								} else if (type == LatteTypes.PHP_VARIABLE) {
+									result.hasValidVariable = true;
+
+								} else {
+									super.visitElement(element);
+									if (type != LatteTypes.PHP_CONTENT && type != LatteTypes.PHP_TYPED_DECLARATION && !element.getText().equals("|")) {
+										if (!result.hasValidVariable) {
+											result.beforeVarCount++;
 										}
 									}
-								});
-							}
-
-							if (!result.hasValidVariable) {
-								addError("Tag {var} must contains valid variable.", problems, element, manager, isOnTheFly);
+								}
 							}
+						});
+					}
 
-							if (result.beforeVarCount > 0) {
-								addError("Invalid content in {var} tag.", problems, element, manager, isOnTheFly);
-							}
-						}
+					if (!result.hasValidVariable) {
+						addError("Tag {var} must contains valid variable.", problems, element, manager, isOnTheFly);
 					}
 
-				} else {
-					super.visitElement(element);
+					if (result.beforeVarCount > 0) {
+						addError("Invalid content in {var} tag.", problems, element, manager, isOnTheFly);
+					}
 				}
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
@@ -9,6 +9,7 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jantvrdik.intellij.latte.psi.*;
 import com.jantvrdik.intellij.latte.utils.LatteTypesUtil;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -31,68 +32,58 @@ public class MacroVarTypeInspection extends LocalInspectionTool {
 		}
 
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LatteMacroTag && ((LatteMacroTag) element).matchMacroName("varType")) {
-					LatteMacroContent macroContent = PsiTreeUtil.findChildOfType(element, LatteMacroContent.class);
-					if (macroContent != null) {
-						List<LattePhpContent> phpContent = new ArrayList<>(macroContent.getPhpContentList());
-
-						if (phpContent.size() == 0) {
-							addError("Tag {varType} must have php content.", problems, element, manager, isOnTheFly);
-
-						} else {
-							Result result = new Result();
-							for (LattePhpContent content : phpContent) {
-								content.accept(new PsiRecursiveElementWalkingVisitor() {
-									@Override
-									public void visitElement(PsiElement element) {
-										IElementType type = element.getNode().getElementType();
-										if (LatteTypesUtil.getAllSkippedHintTokens().contains(type)) {
-
-										} else if (LatteTypesUtil.getTypeHintTokens().contains(type)) {
-											if (!result.hasTypeFirst) {
-												result.hasTypeFirst = true;
-											}
-
-										} else if (type == LatteTypes.PHP_VARIABLE) {
-											result.variableCount++;
-
-										} else {
-											super.visitElement(element);
-											if (type != LatteTypes.PHP_CONTENT) {
-												result.otherCount++;
-											}
-										}
-									}
-								});
-							}
+		for (LatteMacroTag element : LatteFileElements.getInstance((LatteFile) file).getMacroTags("varType")) {
+			LatteMacroContent macroContent = PsiTreeUtil.findChildOfType(element, LatteMacroContent.class);
+			if (macroContent != null) {
+				List<LattePhpContent> phpContent = new ArrayList<>(macroContent.getPhpContentList());
 
-							if (!result.hasTypeFirst) {
-								addError("First value in {varType} tag must be type hint.", problems, element, manager, isOnTheFly);
-							}
+				if (phpContent.size() == 0) {
+					addError("Tag {varType} must have php content.", problems, element, manager, isOnTheFly);
 
-							if (result.variableCount == 0) {
-								addError("Last value in {varType} tag must be variable.", problems, element, manager, isOnTheFly);
+				} else {
+					Result result = new Result();
+					for (LattePhpContent content : phpContent) {
+						content.accept(new PsiRecursiveElementWalkingVisitor() {
+							@Override
+							public void visitElement(PsiElement element) {
+								IElementType type = element.getNode().getElementType();
+								if (LatteTypesUtil.getAllSkippedHintTokens().contains(type)) {
+
+								} else if (LatteTypesUtil.getTypeHintTokens().contains(type)) {
+									if (!result.hasTypeFirst) {
+										result.hasTypeFirst = true;
+									}
 
-							} else if (result.variableCount > 1) {
-								addError("Only one variable can be defined in {varType} tag.", problems, element, manager, isOnTheFly);
-							}
+								} else if (type == LatteTypes.PHP_VARIABLE) {
+									result.variableCount++;
 
-							if (result.otherCount > 0) {
-								addError("Invalid content in {varType} tag.", problems, element, manager, isOnTheFly);
+								} else {
+									super.visitElement(element);
+									if (type != LatteTypes.PHP_CONTENT && type != LatteTypes.PHP_TYPED_DECLARATION) {
+										result.otherCount++;
+									}
+								}
 							}
-						}
+						});
+					}
+
+					if (!result.hasTypeFirst) {
+						addError("First value in {varType} tag must be type hint.", problems, element, manager, isOnTheFly);
+					}
 
+					if (result.variableCount == 0) {
+						addError("Last value in {varType} tag must be variable.", problems, element, manager, isOnTheFly);
 
+					} else if (result.variableCount > 1) {
+						addError("Only one variable can be defined in {varType} tag.", problems, element, manager, isOnTheFly);
 					}
 
-				} else {
-					super.visitElement(element);
+					if (result.otherCount > 0) {
+						addError("Invalid content in {varType} tag.", problems, element, manager, isOnTheFly);
+					}
 				}
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
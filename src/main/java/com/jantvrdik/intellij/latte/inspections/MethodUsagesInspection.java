@@ -5,9 +5,7 @@ import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.intentions.AddCustomLatteFunction;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
@@ -15,6 +13,8 @@ import com.jantvrdik.intellij.latte.psi.LattePhpMethod;
 import com.jantvrdik.intellij.latte.settings.LatteCustomFunctionSettings;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
+import com.jantvrdik.intellij.latte.utils.LattePhpClassMembers;
 import com.jetbrains.php.lang.psi.elements.Function;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
@@ -39,24 +39,21 @@ public class MethodUsagesInspection extends BaseLocalInspectionTool {
 		if (!(file instanceof LatteFile)) {
 			return null;
 		}
+		return LatteInspectionResultCache.getInstance(file.getProject())
+				.checkFile(this, (LatteFile) file, manager, isOnTheFly, () -> checkLatteFile((LatteFile) file, manager, isOnTheFly));
+	}
 
+	@NotNull
+	private ProblemDescriptor[] checkLatteFile(@NotNull LatteFile file, @NotNull final InspectionManager manager, final boolean isOnTheFly) {
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LattePhpMethod) {
-					if (((LattePhpMethod) element).isFunction()) {
-						processFunction((LattePhpMethod) element, problems, manager, isOnTheFly);
-
-					} else {
-						processMethod((LattePhpMethod) element, problems, manager, isOnTheFly);
-					}
-
-				} else {
-					super.visitElement(element);
-				}
+		for (LattePhpMethod element : LatteFileElements.getInstance(file).getMethods()) {
+			if (element.isFunction()) {
+				processFunction(element, problems, manager, isOnTheFly);
+
+			} else {
+				processMethod(element, problems, manager, isOnTheFly);
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
@@ -95,29 +92,25 @@ public class MethodUsagesInspection extends BaseLocalInspectionTool {
 		Collection<PhpClass> phpClasses = phpType.getPhpClasses(element.getProject());
 		String methodName = element.getMethodName();
 		if (phpClasses != null) {
-			for (PhpClass phpClass : phpClasses) {
-				for (Method method : phpClass.getMethods()) {
-					if (method.getName().equals(methodName)) {
-						if (method.getModifier().isPrivate()) {
-							addProblem(manager, problems, element, "Used private method '" + methodName + "'", isOnTheFly);
-
-						} else if (method.getModifier().isProtected()) {
-							addProblem(manager, problems, element, "Used protected method '" + methodName + "'", isOnTheFly);
-						}
-
-						String description;
-						boolean isStatic = ((LattePhpMethod) element).isStatic();
-						if (isStatic && !method.getModifier().isStatic()) {
-							description = "Method '" + methodName + "' is not static but called statically";
-							addProblem(manager, problems, element, description, isOnTheFly);
-
-						} else if (!isStatic && method.getModifier().isStatic()) {
-							description = "Method '" + methodName + "' is static but called non statically";
-							addProblem(manager, problems, element, description, isOnTheFly);
-						}
-						isFound = true;
-					}
+			for (Method method : LattePhpClassMembers.findMethods(phpClasses, methodName)) {
+				if (method.getModifier().isPrivate()) {
+					addProblem(manager, problems, element, "Used private method '" + methodName + "'", isOnTheFly);
+
+				} else if (method.getModifier().isProtected()) {
+					addProblem(manager, problems, element, "Used protected method '" + methodName + "'", isOnTheFly);
+				}
+
+				String description;
+				boolean isStatic = element.isStatic();
+				if (isStatic && !method.getModifier().isStatic()) {
+					description = "Method '" + methodName + "' is not static but called statically";
+					addProblem(manager, problems, element, description, isOnTheFly);
+
+				} else if (!isStatic && method.getModifier().isStatic()) {
+					description = "Method '" + methodName + "' is static but called non statically";
+					addProblem(manager, problems, element, description, isOnTheFly);
 				}
+				isFound = true;
 			}
 		}
 
@@ -10,6 +10,7 @@ import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.config.LatteMacro;
 import com.jantvrdik.intellij.latte.psi.*;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,17 +34,9 @@ public class ModifierNotAllowedInspection extends LocalInspectionTool {
 		}
 
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LatteMacroTag) {
-					checkClassicMacro((LatteMacroTag) element, problems, manager, isOnTheFly);
-
-				} else {
-					super.visitElement(element);
-				}
-			}
-		});
+		for (LatteMacroTag element : LatteFileElements.getInstance((LatteFile) file).getMacroTags()) {
+			checkClassicMacro(element, problems, manager, isOnTheFly);
+		}
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
 
@@ -6,10 +6,11 @@ import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LattePhpStaticVariable;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
+import com.jantvrdik.intellij.latte.utils.LatteFileElements;
+import com.jantvrdik.intellij.latte.utils.LattePhpClassMembers;
 import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import com.jetbrains.php.lang.psi.elements.PhpModifier;
@@ -34,51 +35,44 @@ public class StaticPropertyUsagesInspection extends LocalInspectionTool {
 		if (!(file instanceof LatteFile)) {
 			return null;
 		}
+		return LatteInspectionResultCache.getInstance(file.getProject())
+				.checkFile(this, (LatteFile) file, manager, isOnTheFly, () -> checkLatteFile((LatteFile) file, manager, isOnTheFly));
+	}
 
+	@NotNull
+	private ProblemDescriptor[] checkLatteFile(@NotNull LatteFile file, @NotNull final InspectionManager manager, final boolean isOnTheFly) {
 		final List<ProblemDescriptor> problems = new ArrayList<ProblemDescriptor>();
-		file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-			@Override
-			public void visitElement(PsiElement element) {
-				if (element instanceof LattePhpStaticVariable) {
-					LattePhpType phpType = ((LattePhpStaticVariable) element).getPhpType();
-
-					Collection<PhpClass> phpClasses = phpType.getPhpClasses(element.getProject());
-					if (phpClasses == null) {
-						return;
-					}
+		for (LattePhpStaticVariable element : LatteFileElements.getInstance(file).getStaticVariables()) {
+			LattePhpType phpType = element.getPhpType();
 
-					boolean isFound = false;
-					String variableName = ((LattePhpStaticVariable) element).getVariableName();
-					for (PhpClass phpClass : phpClasses) {
-						for (Field field : phpClass.getFields()) {
-							if (!field.isConstant() && field.getName().equals(variableName)) {
-								PhpModifier modifier = field.getModifier();
-								if (modifier.isPrivate()) {
-									addProblem(manager, problems, element, "Used private static property '" + variableName + "'", isOnTheFly);
-
-								} else if (modifier.isProtected()) {
-									addProblem(manager, problems, element, "Used protected static property '" + variableName + "'", isOnTheFly);
-								}
+			Collection<PhpClass> phpClasses = phpType.getPhpClasses(element.getProject());
+			if (phpClasses == null) {
+				continue;
+			}
 
-								if (!modifier.isStatic()) {
-									String description = "Property '" + variableName + "' is not static but used statically";
-									addProblem(manager, problems, element, description, isOnTheFly);
+			boolean isFound = false;
+			String variableName = element.getVariableName();
+			for (Field field : LattePhpClassMembers.findFields(phpClasses, variableName, false)) {
+				PhpModifier modifier = field.getModifier();
+				if (modifier.isPrivate()) {
+					addProblem(manager, problems, element, "Used private static property '" + variableName + "'", isOnTheFly);
 
-								}
-								isFound = true;
-							}
-						}
-					}
+				} else if (modifier.isProtected()) {
+					addProblem(manager, problems, element, "Used protected static property '" + variableName + "'", isOnTheFly);
+				}
 
-					if (!isFound) {
-						addProblem(manager, problems, element, "Property '" + variableName + "' not found", ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly);
-					}
+				if (!modifier.isStatic()) {
+					String description = "Property '" + variableName + "' is not static but used statically";
+					addProblem(manager, problems, element, description, isOnTheFly);
 
-				} else {
-					super.visitElement(element);
 				}
+				isFound = true;
+			}
+
+			if (!isFound) {
+				addProblem(manager, problems, element, "Property '" + variableName + "' not found", ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly);
 			}
-		});
+		}
 
 		return problems.toArray(new ProblemDescriptor[problems.size()]);
 	}
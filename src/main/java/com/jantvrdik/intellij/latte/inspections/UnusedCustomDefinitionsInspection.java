@@ -0,0 +1,113 @@
+package com.jantvrdik.intellij.latte.inspections;
+
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.*;
+import com.intellij.codeInspection.reference.RefEntity;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ShowSettingsUtil;
+import com.intellij.openapi.project.Project;
+import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.indexes.LatteModifierIndex;
+import com.jantvrdik.intellij.latte.indexes.LattePhpMemberIndex;
+import com.jantvrdik.intellij.latte.indexes.LattePhpMemberUsage;
+import com.jantvrdik.intellij.latte.settings.DefaultSettings;
+import com.jantvrdik.intellij.latte.settings.LatteCustomFunctionSettings;
+import com.jantvrdik.intellij.latte.ui.LatteCustomFunctionSettingsForm;
+import com.jantvrdik.intellij.latte.ui.LatteCustomModifierSettingsForm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Batch inspection reporting custom modifiers and functions from LatteSettings which are not used in any template.
+ *
+ * Usages are looked up in indexes of the whole project (per-file modifier counts, function calls without receiver),
+ * so the result does not depend on analysed scope and no template is parsed. Runs in a non-blocking read action.
+ * Functions added to settings by default (isLinkCurrent...) are not reported.
+ */
+public class UnusedCustomDefinitionsInspection extends GlobalInspectionTool {
+
+	@NotNull
+	@Override
+	public String getShortName() {
+		return "LatteUnusedCustomDefinitions";
+	}
+
+	@Override
+	public boolean isGraphNeeded() {
+		return false;
+	}
+
+	@Override
+	public void runInspection(
+			@NotNull AnalysisScope scope,
+			@NotNull InspectionManager manager,
+			@NotNull GlobalInspectionContext globalContext,
+			@NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor
+	) {
+		Project project = globalContext.getProject();
+		// non-blocking read action can be restarted, so problems are reported after it finishes
+		List<CommonProblemDescriptor> problems = ReadAction.nonBlocking(() -> findUnusedDefinitions(project, manager)).executeSynchronously();
+		RefEntity refProject = globalContext.getRefManager().getRefProject();
+		for (CommonProblemDescriptor problem : problems) {
+			problemDescriptionsProcessor.addProblemElement(refProject, problem);
+		}
+	}
+
+	@NotNull
+	private static List<CommonProblemDescriptor> findUnusedDefinitions(@NotNull Project project, @NotNull InspectionManager manager) {
+		List<CommonProblemDescriptor> problems = new ArrayList<CommonProblemDescriptor>();
+		for (String modifier : new TreeSet<String>(LatteConfiguration.INSTANCE.getCustomModifiers(project).keySet())) {
+			if (LatteModifierIndex.getUsageCount(project, modifier) == 0) {
+				problems.add(manager.createProblemDescriptor(
+						"Custom filter '" + modifier + "' from Latte settings (Filters) is not used in any template.",
+						new OpenSettingsQuickFix(LatteCustomModifierSettingsForm.class)
+				));
+			}
+		}
+
+		for (LatteCustomFunctionSettings function : LatteConfiguration.INSTANCE.getFunctions(project)) {
+			String name = function.getFunctionName();
+			if (name == null || DefaultSettings.isDefaultFunction(name)) {
+				continue;
+			}
+
+			if (LattePhpMemberIndex.findFiles(project, name, LattePhpMemberUsage.FUNCTION, null).isEmpty()) {
+				problems.add(manager.createProblemDescriptor(
+						"Custom function '" + name + "' from Latte settings (Functions) is not used in any template.",
+						new OpenSettingsQuickFix(LatteCustomFunctionSettingsForm.class)
+				));
+			}
+		}
+		return problems;
+	}
+
+	/**
+	 * Problems are not placed in any file, so the fix navigates to the settings page with the definition.
+	 */
+	private static class OpenSettingsQuickFix implements QuickFix<CommonProblemDescriptor> {
+		private final Class<? extends Configurable> configurableClass;
+
+		OpenSettingsQuickFix(@NotNull Class<? extends Configurable> configurableClass) {
+			this.configurableClass = configurableClass;
+		}
+
+		@NotNull
+		@Override
+		public String getFamilyName() {
+			return "Open Latte settings";
+		}
+
+		@Override
+		public void applyFix(@NotNull Project project, @NotNull CommonProblemDescriptor descriptor) {
+			ApplicationManager.getApplication().invokeLater(
+					() -> ShowSettingsUtil.getInstance().showSettingsDialog(project, configurableClass),
+					project.getDisposed()
+			);
+		}
+	}
+}
@@ -42,7 +42,9 @@ public class AddCustomLatteFunction extends BaseIntentionAction {
 
 	@Override
 	public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-		LatteSettings.getInstance(project).customFunctionSettings.add(defaultFunction);
+		LatteSettings settings = LatteSettings.getInstance(project);
+		settings.customFunctionSettings.add(defaultFunction);
+		settings.incModificationCount();
 		DaemonCodeAnalyzer.getInstance(project).restart(); // force re-analyzing
 	}
 }
@@ -42,7 +42,9 @@ public class AddCustomLatteModifier extends BaseIntentionAction {
 
 	@Override
 	public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-		LatteSettings.getInstance(project).customModifierSettings.add(defaultModifier);
+		LatteSettings settings = LatteSettings.getInstance(project);
+		settings.customModifierSettings.add(defaultModifier);
+		settings.incModificationCount();
 		DaemonCodeAnalyzer.getInstance(project).restart(); // force re-analyzing
 	}
 }
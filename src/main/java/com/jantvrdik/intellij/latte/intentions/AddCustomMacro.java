@@ -40,7 +40,9 @@ abstract public class AddCustomMacro extends BaseIntentionAction {
 
 	@Override
 	public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-		LatteSettings.getInstance(project).customMacroSettings.add(macro);
+		LatteSettings settings = LatteSettings.getInstance(project);
+		settings.customMacroSettings.add(macro);
+		settings.incModificationCount();
 		DaemonCodeAnalyzer.getInstance(project).restart(); // force re-analyzing
 	}
 }
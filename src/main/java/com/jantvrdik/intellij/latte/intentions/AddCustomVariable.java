@@ -38,7 +38,9 @@ abstract public class AddCustomVariable extends BaseIntentionAction {
 
 	@Override
 	public void invoke(@NotNull Project project, Editor editor, PsiFile file) throws IncorrectOperationException {
-		LatteSettings.getInstance(project).variableSettings.add(defaultVariable);
+		LatteSettings settings = LatteSettings.getInstance(project);
+		settings.variableSettings.add(defaultVariable);
+		settings.incModificationCount();
 		DaemonCodeAnalyzer.getInstance(project).restart(); // force re-analyzing
 	}
 }
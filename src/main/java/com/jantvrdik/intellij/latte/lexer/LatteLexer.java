@@ -1,26 +1,151 @@
 package com.jantvrdik.intellij.latte.lexer;
 
 import com.intellij.lexer.LayeredLexer;
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.LexerBase;
+import com.intellij.psi.tree.IElementType;
 import com.jantvrdik.intellij.latte.psi.LatteTypes;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * Main Latte lexer which combines "top lexer" and "macro lexer".
+ * Main Latte lexer which combines "top lexer", "macro lexer", "macro content lexer" and "PHP lexer".
  *
- * LatteMacroLexerAdapter is used to further process token T_MACRO_CLASSIC.
+ * All lexers are driven in one forward pass over the buffer: token T_MACRO_CLASSIC is processed by LatteMacroLexerAdapter,
+ * T_MACRO_CONTENT by LatteMacroContentLexerAdapter and T_PHP_CONTENT by LattePhpLexerAdapter.
+ * Produced tokens and states are the same as from nested LayeredLexers (see LatteLayeredLexer in tests),
+ * without their bookkeeping on every token.
  */
-public class LatteLexer extends LayeredLexer {
+public class LatteLexer extends LexerBase {
+	private static final int IN_LAYER_STATE = 1024;
+
+	private final Lexer macroLexer;
+	private final Lexer contentLexer;
+	private final Lexer phpLexer;
+
+	/** active lexers, stack[0] is base lexer and stack[depth] produces current token */
+	private final Lexer[] stack = new Lexer[4];
+	private int depth = 0;
+
+	/** part of base token which is not covered by tokens of its layer */
+	private IElementType gapType;
+	private int gapStart;
+
+	private CharSequence buffer;
+	private int bufferEnd;
+
 	public LatteLexer() {
-		super(new LatteTopLexerAdapter());
-		LayeredLexer macroLexer = new LayeredLexer(new LatteMacroLexerAdapter());
-		macroLexer.registerLayer(createContentLexerAdapter(), LatteTypes.T_MACRO_CONTENT);
+		this(new LatteTopLexerAdapter());
+	}
+
+	private LatteLexer(@NotNull Lexer baseLexer) {
+		boolean layers = !Boolean.TRUE.equals(LayeredLexer.ourDisableLayersFlag.get());
+		stack[0] = baseLexer;
+		macroLexer = layers ? new LatteMacroLexerAdapter() : null;
+		contentLexer = layers ? new LatteMacroContentLexerAdapter() : null;
+		phpLexer = layers ? new LattePhpLexerAdapter() : null;
+	}
+
+	/**
+	 * Lexer for content of one macro (T_MACRO_CONTENT token), used for reparsing of MACRO_CONTENT elements.
+	 */
+	public static LatteLexer createContentLexer() {
+		return new LatteLexer(new LatteMacroContentLexerAdapter());
+	}
+
+	@Override
+	public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+		assert initialState != IN_LAYER_STATE : "Restoring to layer is not supported.";
+		this.buffer = buffer;
+		this.bufferEnd = endOffset;
+		depth = 0;
+		gapType = null;
+		stack[0].start(buffer, startOffset, endOffset, initialState);
+		enterLayers();
+	}
+
+	@Override
+	public int getState() {
+		return depth > 0 || gapType != null ? IN_LAYER_STATE : stack[0].getState();
+	}
+
+	@Nullable
+	@Override
+	public IElementType getTokenType() {
+		return gapType != null ? gapType : stack[depth].getTokenType();
+	}
+
+	@Override
+	public int getTokenStart() {
+		return gapType != null ? gapStart : stack[depth].getTokenStart();
+	}
+
+	@Override
+	public int getTokenEnd() {
+		return stack[depth].getTokenEnd();
+	}
+
+	@Override
+	public void advance() {
+		gapType = null;
+		while (true) {
+			Lexer lexer = stack[depth];
+			int tokenEnd = lexer.getTokenEnd();
+			lexer.advance();
+			if (depth == 0 || lexer.getTokenType() != null) {
+				enterLayers();
+				return;
+			}
+
+			// layer is finished, continue with the lexer below it
+			depth--;
+			if (tokenEnd < stack[depth].getTokenEnd()) {
+				gapType = stack[depth].getTokenType();
+				gapStart = tokenEnd;
+				return;
+			}
+		}
+	}
+
+	@NotNull
+	@Override
+	public CharSequence getBufferSequence() {
+		return buffer;
+	}
+
+	@Override
+	public int getBufferEnd() {
+		return bufferEnd;
+	}
+
+	/**
+	 * Starts layer lexers for current token until the token is not processed by any other lexer.
+	 */
+	private void enterLayers() {
+		while (depth < stack.length - 1) {
+			Lexer base = stack[depth];
+			Lexer layer = findLayer(base.getTokenType());
+			if (layer == null) {
+				return;
+			}
 
-		registerLayer(macroLexer, LatteTypes.T_MACRO_CLASSIC);
-		registerLayer(createContentLexerAdapter(), LatteTypes.T_MACRO_CONTENT);
+			layer.start(buffer, base.getTokenStart(), base.getTokenEnd(), 0);
+			if (layer.getTokenType() == null) {
+				return;
+			}
+			stack[++depth] = layer;
+		}
 	}
 
-	private LayeredLexer createContentLexerAdapter() {
-		LayeredLexer contentMacroLexer = new LayeredLexer(new LatteMacroContentLexerAdapter());
-		contentMacroLexer.registerLayer(new LattePhpLexerAdapter(), LatteTypes.T_PHP_CONTENT);
-		return contentMacroLexer;
+	@Nullable
+	private Lexer findLayer(@Nullable IElementType type) {
+		if (type == LatteTypes.T_MACRO_CLASSIC) {
+			return macroLexer;
+		} else if (type == LatteTypes.T_MACRO_CONTENT) {
+			return contentLexer;
+		} else if (type == LatteTypes.T_PHP_CONTENT) {
+			return phpLexer;
+		}
+		return null;
 	}
 }
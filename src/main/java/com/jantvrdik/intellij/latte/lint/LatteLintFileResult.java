@@ -0,0 +1,20 @@
+package com.jantvrdik.intellij.latte.lint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Problems found in one template with time spent by inspections on it.
+ */
+public class LatteLintFileResult {
+	public final String path;
+	public final long timeMillis;
+	public final List<LatteLintProblem> problems;
+
+	public LatteLintFileResult(@NotNull String path, long timeMillis, @NotNull List<LatteLintProblem> problems) {
+		this.path = path;
+		this.timeMillis = timeMillis;
+		this.problems = problems;
+	}
+}
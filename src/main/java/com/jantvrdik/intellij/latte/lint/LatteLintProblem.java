@@ -0,0 +1,22 @@
+package com.jantvrdik.intellij.latte.lint;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * One problem reported by a Latte inspection, line and column are 1-based.
+ */
+public class LatteLintProblem {
+	public final String inspection;
+	public final String level;
+	public final String message;
+	public final int line;
+	public final int column;
+
+	public LatteLintProblem(@NotNull String inspection, @NotNull String level, @NotNull String message, int line, int column) {
+		this.inspection = inspection;
+		this.level = level;
+		this.message = message;
+		this.line = line;
+		this.column = column;
+	}
+}
@@ -0,0 +1,147 @@
+package com.jantvrdik.intellij.latte.lint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Results of LatteLintStarter written as plain JSON or as SARIF 2.1.0.
+ *
+ * Files are sorted by path, so reports of the same project can be compared.
+ */
+public class LatteLintReport {
+
+	private final List<LatteLintFileResult> files;
+	private final long timeMillis;
+
+	public LatteLintReport(@NotNull Collection<LatteLintFileResult> files, long timeMillis) {
+		this.files = new ArrayList<LatteLintFileResult>(files);
+		this.files.sort(Comparator.comparing(file -> file.path));
+		this.timeMillis = timeMillis;
+	}
+
+	public List<LatteLintFileResult> getFiles() {
+		return Collections.unmodifiableList(files);
+	}
+
+	public int getProblemsCount() {
+		int count = 0;
+		for (LatteLintFileResult file : files) {
+			count += file.problems.size();
+		}
+		return count;
+	}
+
+	@NotNull
+	public String toJson() {
+		StringBuilder out = new StringBuilder();
+		out.append("{\"timeMillis\":").append(timeMillis);
+		out.append(",\"problemsCount\":").append(getProblemsCount());
+		out.append(",\"files\":[");
+		for (int i = 0; i < files.size(); i++) {
+			LatteLintFileResult file = files.get(i);
+			out.append(i > 0 ? "," : "").append("{\"path\":").append(quote(file.path));
+			out.append(",\"timeMillis\":").append(file.timeMillis);
+			out.append(",\"problems\":[");
+			for (int j = 0; j < file.problems.size(); j++) {
+				LatteLintProblem problem = file.problems.get(j);
+				out.append(j > 0 ? "," : "").append("{\"inspection\":").append(quote(problem.inspection));
+				out.append(",\"level\":").append(quote(problem.level));
+				out.append(",\"message\":").append(quote(problem.message));
+				out.append(",\"line\":").append(problem.line);
+				out.append(",\"column\":").append(problem.column).append("}");
+			}
+			out.append("]}");
+		}
+		return out.append("]}").toString();
+	}
+
+	/**
+	 * Per-file times are stored in properties of artifacts.
+	 */
+	@NotNull
+	public String toSarif() {
+		Set<String> rules = new TreeSet<String>();
+		for (LatteLintFileResult file : files) {
+			for (LatteLintProblem problem : file.problems) {
+				rules.add(problem.inspection);
+			}
+		}
+
+		StringBuilder out = new StringBuilder();
+		out.append("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\",\"runs\":[{");
+		out.append("\"tool\":{\"driver\":{\"name\":\"Latte\",\"rules\":[");
+		int ruleIndex = 0;
+		for (String rule : rules) {
+			out.append(ruleIndex++ > 0 ? "," : "").append("{\"id\":").append(quote(rule)).append("}");
+		}
+		out.append("]}},\"properties\":{\"timeMillis\":").append(timeMillis).append("}");
+
+		out.append(",\"artifacts\":[");
+		for (int i = 0; i < files.size(); i++) {
+			LatteLintFileResult file = files.get(i);
+			out.append(i > 0 ? "," : "").append("{\"location\":{\"uri\":").append(quote(file.path)).append("}");
+			out.append(",\"properties\":{\"timeMillis\":").append(file.timeMillis).append("}}");
+		}
+
+		out.append("],\"results\":[");
+		boolean first = true;
+		for (LatteLintFileResult file : files) {
+			for (LatteLintProblem problem : file.problems) {
+				out.append(first ? "" : ",").append("{\"ruleId\":").append(quote(problem.inspection));
+				out.append(",\"level\":").append(quote(getSarifLevel(problem.level)));
+				out.append(",\"message\":{\"text\":").append(quote(problem.message)).append("}");
+				out.append(",\"locations\":[{\"physicalLocation\":{\"artifactLocation\":{\"uri\":").append(quote(file.path)).append("}");
+				out.append(",\"region\":{\"startLine\":").append(problem.line);
+				out.append(",\"startColumn\":").append(problem.column).append("}}}]}");
+				first = false;
+			}
+		}
+		return out.append("]}]}").toString();
+	}
+
+	@NotNull
+	static String getSarifLevel(@NotNull String level) {
+		switch (level) {
+			case "ERROR":
+				return "error";
+			case "WARNING":
+			case "WEAK WARNING":
+				return "warning";
+			default:
+				return "note";
+		}
+	}
+
+	@NotNull
+	static String quote(@NotNull String value) {
+		StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			switch (ch) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (ch < 0x20) {
+						out.append(String.format("\\u%04x", (int) ch));
+					} else {
+						out.append(ch);
+					}
+			}
+		}
+		return out.append('"').toString();
+	}
+}
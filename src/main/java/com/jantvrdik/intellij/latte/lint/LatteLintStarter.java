@@ -0,0 +1,236 @@
+package com.jantvrdik.intellij.latte.lint;
+
+import com.intellij.codeHighlighting.HighlightDisplayLevel;
+import com.intellij.codeInsight.daemon.HighlightDisplayKey;
+import com.intellij.codeInspection.*;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Runs Latte inspections over all templates of a project without IDE frame, e.g. on CI:
+ *
+ * idea latte-lint path/to/project [--format=json|sarif] [--output=report.json]
+ *
+ * Templates are checked in parallel (JobLauncher), report contains time spent on each template.
+ * Exit code is 0 without problems, 1 when problems are found and 2 for invalid usage or failure.
+ */
+public class LatteLintStarter implements ApplicationStarter {
+
+	private static final String FORMAT_OPTION = "--format=";
+	private static final String OUTPUT_OPTION = "--output=";
+
+	private String projectPath;
+	private String format = "json";
+	private String output;
+
+	@Override
+	public String getCommandName() {
+		return "latte-lint";
+	}
+
+	@Override
+	public boolean isHeadless() {
+		return true;
+	}
+
+	@Override
+	public void main(String[] args) {
+		if (!parseArguments(args)) {
+			System.err.println("Usage: latte-lint <project> [--format=json|sarif] [--output=<file>]");
+			System.exit(2);
+		}
+
+		Project project = ProjectUtil.openOrImport(projectPath, null, false);
+		if (project == null) {
+			System.err.println("Can not open project " + projectPath);
+			System.exit(2);
+		}
+
+		ApplicationManager.getApplication().executeOnPooledThread(() -> {
+			int exitCode;
+			try {
+				DumbService.getInstance(project).waitForSmartMode();
+				LatteLintReport report = lint(project);
+				writeReport(report);
+				exitCode = report.getProblemsCount() > 0 ? 1 : 0;
+
+			} catch (Throwable e) {
+				e.printStackTrace();
+				exitCode = 2;
+			}
+			System.exit(exitCode);
+		});
+	}
+
+	private boolean parseArguments(String[] args) {
+		// args[0] is command name
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith(FORMAT_OPTION)) {
+				format = arg.substring(FORMAT_OPTION.length());
+			} else if (arg.startsWith(OUTPUT_OPTION)) {
+				output = arg.substring(OUTPUT_OPTION.length());
+			} else if (projectPath == null) {
+				projectPath = new File(arg).getAbsolutePath();
+			} else {
+				return false;
+			}
+		}
+		return projectPath != null && (format.equals("json") || format.equals("sarif"));
+	}
+
+	private void writeReport(@NotNull LatteLintReport report) throws IOException {
+		String text = format.equals("sarif") ? report.toSarif() : report.toJson();
+		if (output == null) {
+			System.out.println(text);
+		} else {
+			Files.write(new File(output).toPath(), text.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	@NotNull
+	static LatteLintReport lint(@NotNull Project project) {
+		long start = System.currentTimeMillis();
+		Map<LocalInspectionEP, LocalInspectionTool> inspections = getLatteInspections();
+		InspectionProfile profile = InspectionProjectProfileManager.getInstance(project).getCurrentProfile();
+		List<VirtualFile> files = new ArrayList<VirtualFile>(ReadAction.compute(
+				() -> FileTypeIndex.getFiles(LatteFileType.INSTANCE, GlobalSearchScope.projectScope(project))
+		));
+
+		Queue<LatteLintFileResult> results = new ConcurrentLinkedQueue<LatteLintFileResult>();
+		ProgressIndicator indicator = new EmptyProgressIndicator();
+		ProgressManager.getInstance().runProcess(() -> {
+			JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> {
+				LatteLintFileResult result = ReadAction.compute(() -> lintFile(project, file, inspections, profile));
+				if (result != null) {
+					results.add(result);
+				}
+				return true;
+			});
+		}, indicator);
+
+		return new LatteLintReport(results, System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Tools are created once and shared by all workers, Latte inspections do not keep any state.
+	 */
+	@NotNull
+	private static Map<LocalInspectionEP, LocalInspectionTool> getLatteInspections() {
+		Map<LocalInspectionEP, LocalInspectionTool> out = new LinkedHashMap<LocalInspectionEP, LocalInspectionTool>();
+		for (LocalInspectionEP inspection : LocalInspectionEP.LOCAL_INSPECTION.getExtensionList()) {
+			if (!LatteLanguage.INSTANCE.getID().equals(inspection.language)) {
+				continue;
+			}
+
+			InspectionProfileEntry tool = inspection.instantiateTool();
+			if (tool instanceof LocalInspectionTool) {
+				out.put(inspection, (LocalInspectionTool) tool);
+			}
+		}
+		return out;
+	}
+
+	@Nullable
+	private static LatteLintFileResult lintFile(
+			@NotNull Project project,
+			@NotNull VirtualFile file,
+			@NotNull Map<LocalInspectionEP, LocalInspectionTool> inspections,
+			@NotNull InspectionProfile profile
+	) {
+		PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+		if (psiFile == null) {
+			return null;
+		}
+
+		long start = System.currentTimeMillis();
+		InspectionManager manager = InspectionManager.getInstance(project);
+		Document document = PsiDocumentManager.getInstance(project).getDocument(psiFile);
+		List<LatteLintProblem> problems = new ArrayList<LatteLintProblem>();
+		for (Map.Entry<LocalInspectionEP, LocalInspectionTool> inspection : inspections.entrySet()) {
+			String shortName = inspection.getKey().getShortName();
+			HighlightDisplayKey key = HighlightDisplayKey.find(shortName);
+			if (key != null && !profile.isToolEnabled(key, psiFile)) {
+				continue;
+			}
+
+			ProblemDescriptor[] descriptors = inspection.getValue().checkFile(psiFile, manager, false);
+			if (descriptors == null) {
+				continue;
+			}
+
+			String level = key != null ? profile.getErrorLevel(key, psiFile).getName() : HighlightDisplayLevel.WARNING.getName();
+			for (ProblemDescriptor descriptor : descriptors) {
+				problems.add(createProblem(shortName, getLevel(descriptor, level), descriptor, document));
+			}
+		}
+		return new LatteLintFileResult(getPath(project, file), System.currentTimeMillis() - start, problems);
+	}
+
+	/**
+	 * Problems reported as errors by inspection (e.g. GENERIC_ERROR) are errors regardless of level in profile.
+	 */
+	@NotNull
+	private static String getLevel(@NotNull ProblemDescriptor descriptor, @NotNull String profileLevel) {
+		ProblemHighlightType type = descriptor.getHighlightType();
+		if (type == ProblemHighlightType.ERROR || type == ProblemHighlightType.GENERIC_ERROR) {
+			return HighlightDisplayLevel.ERROR.getName();
+		}
+		return profileLevel;
+	}
+
+	@NotNull
+	private static LatteLintProblem createProblem(@NotNull String inspection, @NotNull String level, @NotNull ProblemDescriptor descriptor, @Nullable Document document) {
+		String message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, descriptor.getPsiElement());
+		PsiElement element = descriptor.getStartElement();
+		if (element == null || document == null) {
+			return new LatteLintProblem(inspection, level, message, descriptor.getLineNumber() + 1, 1);
+		}
+
+		int offset = element.getTextRange().getStartOffset();
+		TextRange range = descriptor.getTextRangeInElement();
+		if (range != null) {
+			offset += range.getStartOffset();
+		}
+		offset = Math.min(offset, document.getTextLength());
+		int line = document.getLineNumber(offset);
+		return new LatteLintProblem(inspection, level, message, line + 1, offset - document.getLineStartOffset(line) + 1);
+	}
+
+	@NotNull
+	private static String getPath(@NotNull Project project, @NotNull VirtualFile file) {
+		VirtualFile baseDir = project.getBasePath() != null ? file.getFileSystem().findFileByPath(project.getBasePath()) : null;
+		String path = baseDir != null ? VfsUtilCore.getRelativePath(file, baseDir) : null;
+		return path != null ? path : file.getPath();
+	}
+}
@@ -0,0 +1,303 @@
+package com.jantvrdik.intellij.latte.parser;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.config.LatteConfigurationSnapshot;
+import com.jantvrdik.intellij.latte.config.LatteMacro;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static com.jantvrdik.intellij.latte.psi.LatteTypes.*;
+
+/**
+ * Pair and empty flags of all macro open tags ({foo}) in one token stream, computed in one pass before parsing.
+ *
+ * Answers are the same as the former forward scans done by LatteParserUtil for every macro,
+ * results of nested auto empty macros ({label}) are remembered so no part of the stream is scanned repeatedly.
+ */
+public class LatteMacroPairingTable {
+
+	private static final Key<LatteMacroPairingTable> KEY = Key.create("LATTE_MACRO_PAIRING_TABLE");
+
+	private static final byte UNKNOWN = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	/** macro which is neither pair nor unpaired (attribute only macro used as classic tag) */
+	private static final byte NEITHER = 3;
+
+	private final LatteConfigurationSnapshot configuration;
+
+	private IElementType[] types = new IElementType[256];
+	private CharSequence[] texts = new CharSequence[256];
+	private int[] offsets = new int[256];
+	private int size = 0;
+	private int startOffset = Integer.MAX_VALUE;
+
+	/** offsets of macro open tags with their flags, pairs are TRUE, FALSE or NEITHER */
+	private int[] tagOffsets = new int[64];
+	private byte[] tagPairs = new byte[64];
+	private boolean[] tagEmpty = new boolean[64];
+	private int tagsSize = 0;
+
+	/** remembered results of isAutoEmptyPair by token index of macro name */
+	private byte[] autoEmptyResults;
+	private int[] autoEmptyEnds;
+
+	private LatteMacroPairingTable(@NotNull LatteConfigurationSnapshot configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Returns table for tokens of builder, it is created when builder is at first macro and reused for the rest of parsing.
+	 * Builder can be only rolled back to positions after the first macro, so it is created again only for a new builder.
+	 */
+	@NotNull
+	public static LatteMacroPairingTable getInstance(@NotNull PsiBuilder builder) {
+		LatteMacroPairingTable table = builder.getUserData(KEY);
+		if (table == null || builder.getCurrentOffset() < table.startOffset) {
+			table = create(builder, LatteConfiguration.INSTANCE.getSnapshot(builder.getProject()));
+			builder.putUserData(KEY, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Collects tokens from current position of builder to the end, position of builder is not changed.
+	 */
+	@NotNull
+	public static LatteMacroPairingTable create(@NotNull PsiBuilder builder, @NotNull LatteConfigurationSnapshot configuration) {
+		LatteMacroPairingTable table = new LatteMacroPairingTable(configuration);
+		PsiBuilder.Marker marker = builder.mark();
+		IElementType type;
+		while ((type = builder.getTokenType()) != null) {
+			table.addToken(type, builder.getCurrentOffset(), hasText(type) ? builder.getTokenText() : null);
+			builder.advanceLexer();
+		}
+		marker.rollbackTo();
+		table.computeTags();
+		return table;
+	}
+
+	/**
+	 * Collects tokens directly from lexer, whitespaces and comments are skipped same as in PsiBuilder.
+	 */
+	@NotNull
+	public static LatteMacroPairingTable create(@NotNull Lexer lexer, @NotNull LatteConfigurationSnapshot configuration) {
+		TokenSet skipped = TokenSet.orSet(LatteParserDefinition.WHITE_SPACES, LatteParserDefinition.COMMENTS);
+		LatteMacroPairingTable table = new LatteMacroPairingTable(configuration);
+		IElementType type;
+		while ((type = lexer.getTokenType()) != null) {
+			if (!skipped.contains(type)) {
+				table.addToken(type, lexer.getTokenStart(), hasText(type) ? lexer.getTokenSequence() : null);
+			}
+			lexer.advance();
+		}
+		table.computeTags();
+		return table;
+	}
+
+	/**
+	 * @return true if macro open tag at given offset is pair macro, false if it is unpaired macro,
+	 * null if there is no open tag at offset or its macro is neither of them (e.g. attribute only macro)
+	 */
+	@Nullable
+	public Boolean isPair(int offset) {
+		int index = findTag(offset);
+		if (index < 0 || tagPairs[index] == NEITHER) {
+			return null;
+		}
+		return tagPairs[index] == TRUE;
+	}
+
+	/**
+	 * @return true if macro open tag at given offset is closed by /}, null if there is no open tag at offset
+	 */
+	@Nullable
+	public Boolean isEmpty(int offset) {
+		int index = findTag(offset);
+		return index < 0 ? null : tagEmpty[index];
+	}
+
+	public int getTagsCount() {
+		return tagsSize;
+	}
+
+	private int findTag(int offset) {
+		int index = Arrays.binarySearch(tagOffsets, 0, tagsSize, offset);
+		return index < 0 ? -1 : index;
+	}
+
+	private static boolean hasText(IElementType type) {
+		return type == T_MACRO_NAME || type == T_MACRO_SHORTNAME || type == T_HTML_TAG_NATTR_NAME;
+	}
+
+	private void addToken(IElementType type, int offset, @Nullable CharSequence text) {
+		if (size == 0) {
+			startOffset = offset;
+		}
+		if (size == types.length) {
+			types = Arrays.copyOf(types, size * 2);
+			texts = Arrays.copyOf(texts, size * 2);
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		types[size] = type;
+		texts[size] = text;
+		offsets[size] = offset;
+		size++;
+	}
+
+	private void computeTags() {
+		for (int i = 0; i < size; i++) {
+			if (types[i] != T_MACRO_OPEN_TAG_OPEN) {
+				continue;
+			}
+
+			if (tagsSize == tagOffsets.length) {
+				tagOffsets = Arrays.copyOf(tagOffsets, tagsSize * 2);
+				tagPairs = Arrays.copyOf(tagPairs, tagsSize * 2);
+				tagEmpty = Arrays.copyOf(tagEmpty, tagsSize * 2);
+			}
+			tagOffsets[tagsSize] = offsets[i];
+			tagPairs[tagsSize] = computePair(i);
+			tagEmpty[tagsSize] = getType(findTagEndIndex(i)) == T_MACRO_TAG_CLOSE_EMPTY;
+			tagsSize++;
+		}
+	}
+
+	private byte computePair(int index) {
+		int nameIndex = skipToMacroName(index);
+		String macroName = getMacroName(nameIndex);
+		LatteMacro macro = configuration.getMacro(macroName);
+		if (macro != null && macro.type == LatteMacro.Type.AUTO_EMPTY) {
+			return isAutoEmptyPair(macroName, nameIndex) ? TRUE : FALSE;
+
+		} else if (macroName.equals("_")) {
+			// hard coded rule for macro _ because of dg's poor design decision
+			// macro _ is pair only if it has empty arguments, otherwise it is unpaired
+			// see https://github.com/nette/nette/blob/v2.1.2/Nette/Latte/Macros/CoreMacros.php#L193
+			return getType(nameIndex + 1) == T_MACRO_TAG_CLOSE ? TRUE : FALSE;
+
+		} else if (macro == null || macro.type == LatteMacro.Type.UNPAIRED) {
+			return FALSE;
+		}
+		return macro.type == LatteMacro.Type.PAIR ? TRUE : NEITHER;
+	}
+
+	/**
+	 * @return index of T_MACRO_TAG_CLOSE or T_MACRO_TAG_CLOSE_EMPTY token, size for unfinished tag
+	 */
+	private int findTagEndIndex(int index) {
+		int i = index;
+		while (i < size && types[i] != T_MACRO_TAG_CLOSE_EMPTY && types[i] != T_MACRO_TAG_CLOSE) {
+			i++;
+		}
+		return i;
+	}
+
+	@Nullable
+	private IElementType getType(int index) {
+		return index < size ? types[index] : null;
+	}
+
+	/**
+	 * @return index of macro name token (or of the token where the name would be) in tag starting at index
+	 */
+	private int skipToMacroName(int index) {
+		if (getType(index) == T_MACRO_OPEN_TAG_OPEN) index++;
+		if (getType(index) == T_MACRO_CLOSE_TAG_OPEN) index++;
+		if (getType(index) == T_MACRO_NOESCAPE) index++;
+		return index;
+	}
+
+	@NotNull
+	private String getMacroName(int nameIndex) {
+		IElementType type = getType(nameIndex);
+		return type == T_MACRO_NAME || type == T_MACRO_SHORTNAME ? texts[nameIndex].toString() : "=";
+	}
+
+	/**
+	 * Auto empty macro is pair if it is closed before end of its parent macro and it is not used as n:attribute.
+	 *
+	 * @param nameIndex index of macro name token
+	 */
+	private boolean isAutoEmptyPair(String macroName, int nameIndex) {
+		if (autoEmptyResults == null) {
+			autoEmptyResults = new byte[size + 1];
+			autoEmptyEnds = new int[size + 1];
+		}
+		if (autoEmptyResults[nameIndex] == UNKNOWN) {
+			int[] end = new int[1];
+			autoEmptyResults[nameIndex] = scanAutoEmptyPair(macroName, nameIndex, end) ? TRUE : FALSE;
+			autoEmptyEnds[nameIndex] = end[0];
+		}
+		return autoEmptyResults[nameIndex] == TRUE;
+	}
+
+	/**
+	 * @param end index where the scan stopped, the scan of an outer macro continues from there
+	 */
+	private boolean scanAutoEmptyPair(String macroName, int nameIndex, int[] end) {
+		int i = findTagEndIndex(nameIndex + 1);
+		end[0] = i;
+		if (i < size && types[i] == T_MACRO_TAG_CLOSE_EMPTY) {
+			return true;
+		}
+
+		String attributeName = "n:" + macroName;
+		int pairMacrosLevel = 0;
+		for (; i < size; i++) {
+			end[0] = i;
+			IElementType type = types[i];
+			if (type == T_HTML_TAG_NATTR_NAME && attributeName.contentEquals(texts[i])) {
+				return false;
+			}
+			if (type != T_MACRO_CLOSE_TAG_OPEN && type != T_MACRO_OPEN_TAG_OPEN) {
+				continue;
+			}
+
+			boolean closing = type == T_MACRO_CLOSE_TAG_OPEN;
+			i = skipToMacroName(i);
+			end[0] = i;
+			String macroName2 = getMacroName(i);
+			if (macroName2.equals(macroName)) {
+				return closing;
+			} else if (closing) {
+				if (pairMacrosLevel == 0) {
+					return true;
+				} else {
+					pairMacrosLevel--;
+				}
+			} else {
+				int tagEnd = findTagEndIndex(i);
+				if (tagEnd < size && types[tagEnd] == T_MACRO_TAG_CLOSE_EMPTY) {
+					i = tagEnd;
+					continue;
+				}
+
+				LatteMacro macro = configuration.getMacro(macroName2);
+				if (macro != null && macro.type == LatteMacro.Type.AUTO_EMPTY) {
+					boolean nestedPair = isAutoEmptyPair(macroName2, i);
+					i = autoEmptyEnds[i];
+					if (nestedPair) {
+						pairMacrosLevel++;
+					}
+				} else if (macroName2.equals("_")) {
+					i++;
+					if (getType(i) == T_MACRO_TAG_CLOSE) {
+						pairMacrosLevel++;
+					}
+				} else if (macro != null && macro.type == LatteMacro.Type.PAIR) {
+					pairMacrosLevel++;
+				}
+			}
+		}
+		end[0] = size;
+		return false;
+	}
+}
@@ -11,10 +11,10 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IFileElementType;
 import com.intellij.psi.tree.TokenSet;
-import com.jantvrdik.intellij.latte.LatteLanguage;
 import com.jantvrdik.intellij.latte.lexer.LatteLexer;
 import com.jantvrdik.intellij.latte.psi.LatteFile;
 import com.jantvrdik.intellij.latte.psi.LatteTypes;
+import com.jantvrdik.intellij.latte.psi.stubs.LatteStubFileElementType;
 import org.jetbrains.annotations.NotNull;
 
 public class LatteParserDefinition implements ParserDefinition {
@@ -22,7 +22,7 @@ public class LatteParserDefinition implements ParserDefinition {
 	public static final TokenSet COMMENTS = TokenSet.create(LatteTypes.T_MACRO_COMMENT);
 	public static final TokenSet STRINGS = TokenSet.create(LatteTypes.T_MACRO_ARGS_STRING);
 
-	public static final IFileElementType FILE = new IFileElementType(LatteLanguage.INSTANCE);
+	public static final IFileElementType FILE = new LatteStubFileElementType();
 
 	@NotNull
 	@Override
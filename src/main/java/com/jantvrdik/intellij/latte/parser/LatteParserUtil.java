@@ -1,11 +1,15 @@
 package com.jantvrdik.intellij.latte.parser;
 
+import com.intellij.lang.ASTNode;
 import com.intellij.lang.PsiBuilder;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.tree.IElementType;
-import com.jantvrdik.intellij.latte.config.LatteConfiguration;
-import com.jantvrdik.intellij.latte.config.LatteMacro;
+import com.intellij.psi.tree.TokenSet;
 import com.jantvrdik.intellij.latte.psi.LatteTypes;
-import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import static com.jantvrdik.intellij.latte.psi.LatteTypes.*;
 
@@ -14,6 +18,18 @@ import static com.jantvrdik.intellij.latte.psi.LatteTypes.*;
  */
 public class LatteParserUtil extends GeneratedParserUtilBase {
 
+	/**
+	 * Name of macro whose content is parsed alone (see parseMacroContent), content has no tokens of the macro name.
+	 */
+	public static final Key<String> CONTENT_MACRO_NAME = Key.create("LATTE_CONTENT_MACRO_NAME");
+
+	private static final Set<String> TYPED_DECLARATION_MACROS = new HashSet<String>(Arrays.asList("var", "varType", "default", "parameters"));
+
+	private static final TokenSet MACRO_BORDERS = TokenSet.create(
+			T_MACRO_OPEN_TAG_OPEN, T_MACRO_CLOSE_TAG_OPEN, T_MACRO_TAG_CLOSE, T_MACRO_TAG_CLOSE_EMPTY,
+			T_HTML_TAG_NATTR_NAME, T_HTML_TAG_ATTR_SQ, T_HTML_TAG_ATTR_DQ
+	);
+
 	/**
 	 * Looks for a classic macro a returns true if it finds the macro a and it is pair or unpaired (based on pair parameter).
 	 */
@@ -21,32 +37,19 @@ public class LatteParserUtil extends GeneratedParserUtilBase {
 		boolean pair = parser == LatteParser.TRUE_parser_;
 		if (builder.getTokenType() != T_MACRO_OPEN_TAG_OPEN) return false;
 
-		PsiBuilder.Marker marker = builder.mark();
-		String macroName = getMacroName(builder);
-
-		boolean result;
-
-		LatteMacro macro = LatteConfiguration.INSTANCE.getMacro(builder.getProject(), macroName);
-		if (macro != null && macro.type == LatteMacro.Type.AUTO_EMPTY) {
-			result = pair == isAutoEmptyPair(macroName, builder);
-		} else if (macroName.equals("_")) {
-			// hard coded rule for macro _ because of dg's poor design decision
-			// macro _ is pair only if it has empty arguments, otherwise it is unpaired
-			// see https://github.com/nette/nette/blob/v2.1.2/Nette/Latte/Macros/CoreMacros.php#L193
-			builder.advanceLexer();
-			result = ((builder.getTokenType() == T_MACRO_TAG_CLOSE) == pair);
-
-			// all other macros which respect rules
-		} else {
-			result = (macro != null ? (macro.type == (pair ? LatteMacro.Type.PAIR : LatteMacro.Type.UNPAIRED)) : !pair);
-		}
-
-		marker.rollbackTo();
-		return result;
+		Boolean result = LatteMacroPairingTable.getInstance(builder).isPair(builder.getCurrentOffset());
+		return result != null && result == pair;
 	}
 
 	public static boolean checkEmptyMacro(PsiBuilder builder, int level)
 	{
+		if (builder.getTokenType() == T_MACRO_OPEN_TAG_OPEN) {
+			Boolean result = LatteMacroPairingTable.getInstance(builder).isEmpty(builder.getCurrentOffset());
+			if (result != null) {
+				return result;
+			}
+		}
+
 		PsiBuilder.Marker marker = builder.mark();
 		boolean result = false;
 		while (true) {
@@ -66,89 +69,36 @@ public class LatteParserUtil extends GeneratedParserUtilBase {
 		return result;
 	}
 
-	private static boolean isClosingTagExpected(PsiBuilder builder, String macroName)
-	{
-		IElementType type = builder.getTokenType();
-		Builder.Marker marker = builder.mark();
-		if (type == T_MACRO_CLOSE_TAG_OPEN || isEmptyPair(builder)) {
-			return false;
-		}
-		marker.rollbackTo();
-		LatteMacro macro = LatteConfiguration.INSTANCE.getMacro(builder.getProject(), macroName);
-
-		if (macro != null && macro.type == LatteMacro.Type.AUTO_EMPTY) {
-			return isAutoEmptyPair(macroName, builder);
-		}
-		if (macroName.equals("_")) {
-			builder.advanceLexer();
-			return builder.getTokenType() == T_MACRO_TAG_CLOSE;
-		}
-		return macro != null && macro.type == LatteMacro.Type.PAIR;
-	}
-
-	@NotNull
-	private static String getMacroName(PsiBuilder builder) {
-		String macroName;
-
-		consumeTokenFast(builder, T_MACRO_OPEN_TAG_OPEN);
-		consumeTokenFast(builder, T_MACRO_CLOSE_TAG_OPEN);
-		consumeTokenFast(builder, T_MACRO_NOESCAPE);
-		if (nextTokenIsFast(builder, T_MACRO_NAME, T_MACRO_SHORTNAME)) {
-			macroName = builder.getTokenText();
-			assert macroName != null;
-
-		} else {
-			macroName = "=";
+	/**
+	 * Typed declaration ({var Type $foo}) is parsed only in content of macros which declare variables.
+	 */
+	public static boolean isTypedDeclarationMacro(PsiBuilder builder, int level) {
+		String macroName = builder.getUserData(CONTENT_MACRO_NAME);
+		if (macroName != null) {
+			return TYPED_DECLARATION_MACROS.contains(macroName);
 		}
-		return macroName;
-	}
 
-	private static boolean isAutoEmptyPair(String macroName, PsiBuilder builder)
-	{
-		builder.advanceLexer();
-		if (isEmptyPair(builder)) {
-			return true;
-		}
-		int pairMacrosLevel = 0;
-		IElementType type = builder.getTokenType();
-		while (type != null) {
-			if(type == T_HTML_TAG_NATTR_NAME && ("n:" + macroName).equals(builder.getTokenText())) {
+		for (int step = -1; ; step--) {
+			IElementType type = builder.rawLookup(step);
+			if (type == null || MACRO_BORDERS.contains(type)) {
 				return false;
+
+			} else if (type == T_MACRO_NAME) {
+				CharSequence name = builder.getOriginalText().subSequence(builder.rawTokenTypeStart(step), builder.rawTokenTypeStart(step + 1));
+				return TYPED_DECLARATION_MACROS.contains(name.toString());
 			}
-			if (nextTokenIsFast(builder, T_MACRO_CLOSE_TAG_OPEN, T_MACRO_OPEN_TAG_OPEN)) {
-				boolean closing = type == T_MACRO_CLOSE_TAG_OPEN;
-				String macroName2 = getMacroName(builder);
-				if (macroName2.equals(macroName)) {
-					return closing;
-				} else if (closing) {
-					if (pairMacrosLevel == 0) {
-						return true;
-					} else {
-						pairMacrosLevel--;
-					}
-				} else if (isClosingTagExpected(builder, macroName2)) {
-					pairMacrosLevel++;
-				}
-			}
-			builder.advanceLexer();
-			type = builder.getTokenType();
 		}
-		return false;
 	}
 
-	private static boolean isEmptyPair(PsiBuilder builder)
-	{
-		IElementType type = builder.getTokenType();
-		while (type != null) {
-			if (type == T_MACRO_TAG_CLOSE_EMPTY) {
-				return true;
-			} else if (type == T_MACRO_TAG_CLOSE) {
-				return false;
-			}
-			builder.advanceLexer();
-			type = builder.getTokenType();
-		}
-		return false;
+	/**
+	 * Parses content of one macro for reparsing of MACRO_CONTENT element (see LatteMacroContentElementType).
+	 */
+	public static ASTNode parseMacroContent(IElementType root, PsiBuilder builder) {
+		builder = adapt_builder_(root, builder, new LatteParser(), null);
+		PsiBuilder.Marker marker = enter_section_(builder, 0, _COLLAPSE_, null);
+		boolean result = LatteParser.macroContentBody(builder, 1);
+		exit_section_(builder, 0, marker, root, result, true, TRUE_CONDITION);
+		return builder.getTreeBuilt();
 	}
 
 }
@@ -0,0 +1,120 @@
+package com.jantvrdik.intellij.latte.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import com.jantvrdik.intellij.latte.lexer.LatteLexer;
+import com.jantvrdik.intellij.latte.parser.LatteParserUtil;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Element type of macro content ({if $foo|bar} => $foo|bar), edits inside of the content reparse only the content.
+ */
+public class LatteMacroContentElementType extends IReparseableElementType {
+
+	private static final TokenSet MACRO_NAMES = TokenSet.create(LatteTypes.T_MACRO_NAME, LatteTypes.T_MACRO_SHORTNAME);
+
+	public LatteMacroContentElementType(@NotNull @NonNls String debugName) {
+		super(debugName, LatteLanguage.INSTANCE);
+	}
+
+	@Override
+	protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+		Project project = psi.getProject();
+		PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(
+				project, chameleon, LatteLexer.createContentLexer(), getLanguage(), chameleon.getChars()
+		);
+		ASTNode macroName = chameleon.getTreeParent() != null ? chameleon.getTreeParent().findChildByType(LatteTypes.T_MACRO_NAME) : null;
+		builder.putUserData(LatteParserUtil.CONTENT_MACRO_NAME, macroName != null ? macroName.getText() : "");
+		return LatteParserUtil.parseMacroContent(this, builder).getFirstChildNode();
+	}
+
+	/**
+	 * Only edits which can not move borders of the macro (or of the attribute value) are reparsed here,
+	 * everything else is handled by reparsing of the whole file.
+	 */
+	@Override
+	public boolean isParsable(@Nullable ASTNode parent, @NotNull CharSequence buffer, @NotNull Language fileLanguage, @NotNull Project project) {
+		if (parent == null || buffer.length() == 0
+				|| Character.isWhitespace(buffer.charAt(0)) || Character.isWhitespace(buffer.charAt(buffer.length() - 1))) {
+			return false;
+		}
+
+		if (parent.getElementType() != LatteTypes.NETTE_ATTR_VALUE) {
+			return isParsableAfterMacroName(parent, buffer) && isParsableInMacro(buffer);
+		}
+
+		ASTNode quote = parent.getFirstChildNode();
+		IElementType quoteType = quote != null ? quote.getElementType() : null;
+		for (int i = 0; i < buffer.length(); i++) {
+			char ch = buffer.charAt(i);
+			if (quoteType == LatteTypes.T_HTML_TAG_ATTR_DQ) {
+				if (ch == '"') return false;
+			} else if (quoteType == LatteTypes.T_HTML_TAG_ATTR_SQ) {
+				if (ch == '\'') return false;
+			} else if (Character.isWhitespace(ch) || ch == '/' || ch == '>' || ch == '{' || ch == '"' || ch == '\'') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Content must not become part of macro name, which would be produced by relexing of the whole tag
+	 * (e.g. {if$a} => {ifx} or {$foo} => {foo}).
+	 */
+	private boolean isParsableAfterMacroName(@NotNull ASTNode parent, @NotNull CharSequence buffer) {
+		ASTNode content = parent.findChildByType(this);
+		if (content == null) {
+			return false;
+		}
+
+		ASTNode prev = content.getTreePrev();
+		if (prev != null && prev.getElementType() == LatteTypes.T_MACRO_NAME) {
+			return false;
+		}
+		return parent.findChildByType(MACRO_NAMES) != null || !isMacroNameStart(buffer.charAt(0));
+	}
+
+	/**
+	 * Characters which start macro name, short name or noescape in macro lexer.
+	 */
+	private static boolean isMacroNameStart(char ch) {
+		return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || "?!=~#%^&_".indexOf(ch) >= 0;
+	}
+
+	/**
+	 * Content of classic macro can not contain braces and must not end inside of string or with "/" (which would close the macro as empty).
+	 */
+	private static boolean isParsableInMacro(@NotNull CharSequence buffer) {
+		if (buffer.charAt(buffer.length() - 1) == '/') {
+			return false;
+		}
+
+		char quote = 0;
+		for (int i = 0; i < buffer.length(); i++) {
+			char ch = buffer.charAt(i);
+			if (ch == '{' || ch == '}') {
+				return false;
+			} else if (quote != 0) {
+				if (ch == '\\') {
+					i++;
+				} else if (ch == quote) {
+					quote = 0;
+				}
+			} else if (ch == '"' || ch == '\'') {
+				quote = ch;
+			}
+		}
+		return quote == 0;
+	}
+}
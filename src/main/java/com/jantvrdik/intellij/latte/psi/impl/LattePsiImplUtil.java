@@ -2,17 +2,30 @@ package com.jantvrdik.intellij.latte.psi.impl;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.settings.LatteCustomFunctionSettings;
+import com.jantvrdik.intellij.latte.settings.LatteSettings;
 import com.jantvrdik.intellij.latte.settings.LatteVariableSettings;
 import com.jantvrdik.intellij.latte.psi.*;
+import com.jantvrdik.intellij.latte.psi.stubs.*;
+import com.jantvrdik.intellij.latte.utils.LattePhpClassMembers;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
 import com.jantvrdik.intellij.latte.utils.PsiPositionedElement;
+import com.jetbrains.php.lang.PhpLanguage;
 import com.jetbrains.php.lang.psi.elements.Field;
 import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
@@ -20,12 +33,17 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import static com.jantvrdik.intellij.latte.psi.LatteTypes.*;
 
 public class LattePsiImplUtil {
+	private static final Key<CachedValue<LattePhpType>> PHP_TYPE_KEY = Key.create("LATTE_PHP_TYPE");
+	private static final Key<CachedValue<LattePhpType>> RETURN_TYPE_KEY = Key.create("LATTE_PHP_RETURN_TYPE");
+	private static final Key<CachedValue<LattePhpType>> PROPERTY_TYPE_KEY = Key.create("LATTE_PHP_PROPERTY_TYPE");
+
 	@NotNull
 	public static String getMacroName(LatteMacroTag element) {
 		ASTNode nameNode = getMacroNameNode(element);
@@ -86,6 +104,11 @@ public class LattePsiImplUtil {
 	}
 
 	public static String getVariableName(@NotNull LattePhpStaticVariable element) {
+		LattePhpStaticVariableStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = getTextElement(element);
 		return found != null ? LattePhpUtil.normalizePhpVariable(found.getText()) : null;
 	}
@@ -101,16 +124,31 @@ public class LattePsiImplUtil {
 	}
 
 	public static String getConstantName(@NotNull LattePhpConstant element) {
+		LattePhpConstantStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = getTextElement(element);
 		return found != null ? found.getText() : null;
 	}
 
 	public static String getMethodName(@NotNull LattePhpMethod element) {
+		LattePhpMethodStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = findFirstChildWithType(element, T_PHP_METHOD);
 		return found != null ? found.getText() : null;
 	}
 
 	public static String getPropertyName(@NotNull LattePhpProperty element) {
+		LattePhpPropertyStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = getTextElement(element);
 		return found != null ? found.getText() : null;
 	}
@@ -136,11 +174,21 @@ public class LattePsiImplUtil {
 	}
 
 	public static String getClassName(@NotNull LattePhpClass element) {
+		LattePhpClassStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = getTextElement(element);
 		return found != null ? LattePhpUtil.normalizeClassName(found.getText()) : null;
 	}
 
 	public static String getModifierName(@NotNull LatteMacroModifier element) {
+		LatteMacroModifierStub stub = element.getStub();
+		if (stub != null) {
+			return stub.getName();
+		}
+
 		PsiElement found = getTextElement(element);
 		return found != null ? LatteUtil.normalizeMacroModifier(found.getText()) : null;
 	}
@@ -166,11 +214,9 @@ public class LattePsiImplUtil {
 		if (classes == null) {
 			return null;
 		}
-		for (PhpClass phpClass : classes) {
-			for (Field field : phpClass.getFields()) {
-				if (!field.isConstant() && field.getModifier().isPublic() && variableName.equals(field.getName())) {
-					return new LattePhpType(field.getName(), field.getType().toString(), LattePhpUtil.isNullable(field.getType()));
-				}
+		for (Field field : LattePhpClassMembers.findFields(classes, variableName, false)) {
+			if (field.getModifier().isPublic()) {
+				return LattePhpType.create(field.getName(), field.getType().toString(), LattePhpUtil.isNullable(field.getType()));
 			}
 		}
 		return null;
@@ -178,11 +224,10 @@ public class LattePsiImplUtil {
 
 	private static LattePhpType detectVariableType(@NotNull PsiElement element, @NotNull String variableName)
 	{
-		List<PsiPositionedElement> all = LatteUtil.findVariablesInFileBeforeElement(element, element.getContainingFile().getOriginalFile().getVirtualFile(), variableName);
-		List<PsiPositionedElement> definitions = all.stream().filter(
-				psiPositionedElement -> psiPositionedElement.getElement() instanceof LattePhpVariable
-						&& ((LattePhpVariable) psiPositionedElement.getElement()).isDefinition()
-		).collect(Collectors.toList());
+		VirtualFile virtualFile = element.getContainingFile().getOriginalFile().getVirtualFile();
+		List<PsiPositionedElement> definitions = virtualFile == null
+				? Collections.emptyList()
+				: LatteUtil.findVariablesDefinitionsInFileBeforeElement(element, virtualFile, variableName);
 
 		for (PsiPositionedElement positionedElement : definitions) {
 			if (!(positionedElement.getElement() instanceof LattePhpVariable)) {
@@ -191,8 +236,11 @@ public class LattePsiImplUtil {
 
 			PsiElement current = positionedElement.getElement();
 			if (isVarTypeDefinition((LattePhpVariable) current) || isVarDefinition((LattePhpVariable) current)) {
-				String prevPhpType = findPrevPhpType(positionedElement.getElement());
-				return new LattePhpType(prevPhpType.length() == 0 ? "mixed" : prevPhpType);
+				PsiElement parent = current.getParent();
+				if (parent instanceof LattePhpTypedDeclaration) {
+					return LattePhpType.create(((LattePhpTypedDeclaration) parent).getPhpTypeHint().getText());
+				}
+				return LattePhpType.MIXED;
 			}
 		}
 
@@ -206,71 +254,100 @@ public class LattePsiImplUtil {
 			return defaultVariable.toPhpType();
 		}
 
-		return new LattePhpType("mixed", false);
+		return LattePhpType.MIXED;
 	}
 
-	private static String findPrevPhpType(PsiElement element)
-	{
-		return findPrevPhpType(element, "");
+	/**
+	 * References are created once per PSI modification, so results cached for them in ResolveCache are reused.
+	 */
+	@NotNull
+	public static PsiReference[] getCachedReferences(@NotNull PsiElement element) {
+		return CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(
+				ReferenceProvidersRegistry.getReferencesFromProviders(element),
+				PsiModificationTracker.MODIFICATION_COUNT
+		));
 	}
 
-	private static String findPrevPhpType(PsiElement element, String phpType)
-	{
-		PsiElement prevElement = PsiTreeUtil.prevLeaf(element, true);
-		if (prevElement == null || prevElement.getNode().getElementType() == T_MACRO_NAME) {
-			return phpType;
-		}
-
-		String text = prevElement.getText();
-		if (text.trim().length() == 0) {
-			return findPrevPhpType(prevElement, phpType);
-		}
-
-		return findPrevPhpType(prevElement, text + phpType);
+	public static @NotNull LattePhpType getPhpType(@NotNull PsiElement element) {
+		return getCachedType(element, PHP_TYPE_KEY, () -> computePhpType(element));
 	}
 
-	public static @NotNull LattePhpType getPhpType(@NotNull PsiElement element) {
-		PsiElement prev = PsiTreeUtil.skipWhitespacesBackward(element);
-		if (prev == null || (prev.getNode().getElementType() != T_PHP_DOUBLE_COLON && prev.getNode().getElementType() != T_PHP_OBJECT_OPERATOR)) {
-			if (element instanceof LattePhpVariable) {
-				return detectVariableType(element, ((LattePhpVariable) element).getVariableName());
-			}
-			return new LattePhpType("mixed", false);
-		}
+	private static @NotNull LattePhpType computePhpType(@NotNull PsiElement element) {
+		PsiElement parent = element.getParent();
+		if (parent instanceof LattePhpChainLink && parent.getFirstChild() != element) {
+			return ((LattePhpChainLink) parent).getReceiverType();
 
-		PsiElement prevElement;
-		if (prev.getParent().getNode().getElementType() == PHP_FOREACH) {
-			prevElement = PsiTreeUtil.skipWhitespacesBackward(prev.getParent());
-		} else {
-			prevElement = PsiTreeUtil.skipWhitespacesBackward(prev);
+		} else if (element instanceof LattePhpVariable && !isMemberAccess(element)) {
+			// variable which is not used as a member ($foo, not Foo::$foo)
+			return detectVariableType(element, ((LattePhpVariable) element).getVariableName());
+
+		} else if (isMemberAccess(element)) {
+			// member after receiver which is not parsed as node, e.g. after unfinished expression
+			return getExpressionType(findFlatReceiver(element));
 		}
+		return LattePhpType.MIXED;
+	}
 
-		if (prevElement != null && prevElement.getText().equals(")")) {
-			PsiElement beforeBraces = PsiTreeUtil.skipWhitespacesBackward(prevElement);
+	/**
+	 * @return element before -> or :: of given member, method name is returned for method call receivers
+	 */
+	@Nullable
+	private static PsiElement findFlatReceiver(@NotNull PsiElement element) {
+		PsiElement operator = PsiTreeUtil.skipWhitespacesBackward(element);
+		PsiElement receiver = operator != null ? PsiTreeUtil.skipWhitespacesBackward(operator) : null;
+		if (receiver != null && receiver.getNode().getElementType() == T_PHP_RIGHT_NORMAL_BRACE) {
+			PsiElement beforeBraces = PsiTreeUtil.skipWhitespacesBackward(receiver);
 			if (beforeBraces instanceof LattePhpMethodArgs) {
 				beforeBraces = PsiTreeUtil.skipWhitespacesBackward(beforeBraces);
 			}
-
-			if (beforeBraces != null && beforeBraces.getText().equals("(")) {
-				prevElement = PsiTreeUtil.skipWhitespacesBackward(beforeBraces);
+			if (beforeBraces != null && beforeBraces.getNode().getElementType() == T_PHP_LEFT_NORMAL_BRACE) {
+				receiver = PsiTreeUtil.skipWhitespacesBackward(beforeBraces);
 			}
 		}
+		return receiver;
+	}
+
+	@NotNull
+	public static PsiElement getReceiver(@NotNull LattePhpChainLink element) {
+		return element.getFirstChild();
+	}
 
+	/**
+	 * @return type of expression before ->, :: or [
+	 */
+	@NotNull
+	public static LattePhpType getReceiverType(@NotNull LattePhpChainLink element) {
+		return getExpressionType(element.getReceiver());
+	}
+
+	@NotNull
+	private static LattePhpType getExpressionType(@Nullable PsiElement receiver) {
 		LattePhpType type = null;
-		if (prevElement instanceof LattePhpStaticVariable) {
-			type = ((LattePhpStaticVariable) prevElement).getPropertyType();
-		} else if (prevElement instanceof LattePhpClass) {
-			type = ((LattePhpClass) prevElement).getPhpType();
-		} else if (prevElement instanceof LattePhpMethod) {
-			type = ((LattePhpMethod) prevElement).getReturnType();
-		} else if (prevElement instanceof LattePhpProperty) {
-			type = ((LattePhpProperty) prevElement).getPropertyType();
-		} else if (prevElement instanceof LattePhpConstant) {
-			type = ((LattePhpConstant) prevElement).getConstantType();
-		} else if (prevElement instanceof LattePhpVariable) {
-			type = ((LattePhpVariable) prevElement).getPhpType();
-		}
-		return type != null ? type : new LattePhpType("mixed", false);
+		if (receiver instanceof LattePhpVariable) {
+			type = ((LattePhpVariable) receiver).getPhpType();
+		} else if (receiver instanceof LattePhpClass) {
+			type = ((LattePhpClass) receiver).getPhpType();
+		} else if (receiver instanceof LattePhpFunctionCall) {
+			LattePhpMethod function = ((LattePhpFunctionCall) receiver).getPhpMethod();
+			type = function != null ? function.getReturnType() : null;
+		} else if (receiver instanceof LattePhpMethodCall) {
+			type = ((LattePhpMethodCall) receiver).getPhpMethod().getReturnType();
+		} else if (receiver instanceof LattePhpPropertyAccess) {
+			type = ((LattePhpPropertyAccess) receiver).getPhpProperty().getPropertyType();
+		} else if (receiver instanceof LattePhpStaticPropertyAccess) {
+			type = ((LattePhpStaticPropertyAccess) receiver).getPhpStaticVariable().getPropertyType();
+		} else if (receiver instanceof LattePhpConstantAccess) {
+			type = ((LattePhpConstantAccess) receiver).getPhpConstant().getConstantType();
+		} else if (receiver instanceof LattePhpMethod) {
+			type = ((LattePhpMethod) receiver).getReturnType();
+		} else if (receiver instanceof LattePhpProperty) {
+			type = ((LattePhpProperty) receiver).getPropertyType();
+		} else if (receiver instanceof LattePhpStaticVariable) {
+			type = ((LattePhpStaticVariable) receiver).getPropertyType();
+		} else if (receiver instanceof LattePhpConstant) {
+			type = ((LattePhpConstant) receiver).getConstantType();
+		}
+		return type != null ? type : LattePhpType.MIXED;
 	}
 
 	public static boolean isStatic(@NotNull PsiElement element) {
@@ -279,39 +356,65 @@ public class LattePsiImplUtil {
 	}
 
 	public static boolean isFunction(@NotNull PsiElement element) {
+		return !isMemberAccess(element);
+	}
+
+	/**
+	 * @return true for element preceded by -> or :: ($foo->bar, Foo::$bar), false for $foo or foo()
+	 */
+	public static boolean isMemberAccess(@NotNull PsiElement element) {
 		PsiElement prev = PsiTreeUtil.skipWhitespacesBackward(element);
-		return prev == null || (prev.getNode().getElementType() != T_PHP_DOUBLE_COLON && prev.getNode().getElementType() != T_PHP_OBJECT_OPERATOR);
+		return prev != null && (prev.getNode().getElementType() == T_PHP_DOUBLE_COLON || prev.getNode().getElementType() == T_PHP_OBJECT_OPERATOR);
 	}
 
 	public static LattePhpType getReturnType(@NotNull LattePhpMethod element) {
+		return getCachedType(element, RETURN_TYPE_KEY, () -> computeReturnType(element));
+	}
+
+	private static LattePhpType computeReturnType(@NotNull LattePhpMethod element) {
 		LattePhpType type = element.getPhpType();
 		Collection<PhpClass> phpClasses = type.getPhpClasses(element.getProject());
 		String name = element.getMethodName();
 		if (phpClasses.size() == 0) {
 			LatteCustomFunctionSettings customFunction = LatteConfiguration.INSTANCE.getFunction(element.getProject(), name);
-			return customFunction == null ? null : new LattePhpType(customFunction.getFunctionReturnType());
+			return customFunction == null ? null : LattePhpType.create(customFunction.getFunctionReturnType());
 		}
 
-		for (PhpClass phpClass : phpClasses) {
-			for (Method phpMethod : phpClass.getMethods()) {
-				if (phpMethod.getName().equals(name)) {
-					return new LattePhpType(phpMethod.getType().toString(), LattePhpUtil.isNullable(phpMethod.getType()));
-				}
-			}
+		List<Method> methods = LattePhpClassMembers.findMethods(phpClasses, name);
+		if (methods.size() > 0) {
+			Method phpMethod = methods.get(0);
+			return LattePhpType.create(phpMethod.getType().toString(), LattePhpUtil.isNullable(phpMethod.getType()));
 		}
 		return null;
 	}
 
 	public static LattePhpType getPropertyType(@NotNull LattePhpStaticVariable element) {
-		return getPropertyType(element.getProject(), element.getPhpType(), element.getVariableName());
+		return getCachedType(element, PROPERTY_TYPE_KEY, () -> getPropertyType(element.getProject(), element.getPhpType(), element.getVariableName()));
 	}
 
 	public static LattePhpType getConstantType(@NotNull LattePhpConstant element) {
-		return getPropertyType(element.getProject(), element.getPhpType(), element.getConstantName());
+		return getCachedType(element, PROPERTY_TYPE_KEY, () -> getPropertyType(element.getProject(), element.getPhpType(), element.getConstantName()));
 	}
 
 	public static LattePhpType getPropertyType(@NotNull LattePhpProperty element) {
-		return getPropertyType(element.getProject(), element.getPhpType(), element.getPropertyName());
+		return getCachedType(element, PROPERTY_TYPE_KEY, () -> getPropertyType(element.getProject(), element.getPhpType(), element.getPropertyName()));
+	}
+
+	/**
+	 * Types are cached on elements until the Latte file, PHP code or Latte settings are changed,
+	 * so every element of a chain like $a->b()->c is resolved only once.
+	 */
+	private static <T> T getCachedType(@NotNull PsiElement element, @NotNull Key<CachedValue<T>> key, @NotNull Supplier<T> supplier) {
+		return CachedValuesManager.getCachedValue(element, key, () -> {
+			Project project = element.getProject();
+			LatteSettings settings = LatteConfiguration.INSTANCE.getSettings(project);
+			return CachedValueProvider.Result.create(
+					supplier.get(),
+					element.getContainingFile(),
+					PsiModificationTracker.SERVICE.getInstance(project).forLanguage(PhpLanguage.INSTANCE),
+					settings != null ? settings : ModificationTracker.NEVER_CHANGED
+			);
+		});
 	}
 
 	private static LattePhpType getPropertyType(@NotNull Project project, @NotNull LattePhpType type, @NotNull String elementName) {
@@ -320,18 +423,18 @@ public class LattePsiImplUtil {
 			return null;
 		}
 
+		String name = LattePhpUtil.normalizePhpVariable(elementName);
 		for (PhpClass phpClass : phpClasses) {
-			for (Field field : phpClass.getFields()) {
-				if (field.getName().equals(LattePhpUtil.normalizePhpVariable(elementName))) {
-					return new LattePhpType(field.getType().toString(), LattePhpUtil.isNullable(field.getType()));
-				}
+			List<Field> fields = LattePhpClassMembers.getInstance(phpClass).getFields(name);
+			if (fields.size() > 0) {
+				return LattePhpType.create(fields.get(0).getType().toString(), LattePhpUtil.isNullable(fields.get(0).getType()));
 			}
 		}
 		return null;
 	}
 
 	public static LattePhpType getPhpType(@NotNull LattePhpClass element) {
-		return new LattePhpType(element.getClassName(), false);
+		return LattePhpType.create(element.getClassName());
 	}
 
 	public static boolean isTemplateType(@NotNull LattePhpClass element) {
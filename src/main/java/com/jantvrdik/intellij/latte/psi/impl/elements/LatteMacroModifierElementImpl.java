@@ -1,25 +1,31 @@
 package com.jantvrdik.intellij.latte.psi.impl.elements;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
 import com.jantvrdik.intellij.latte.config.LatteModifier;
 import com.jantvrdik.intellij.latte.icons.LatteIcons;
 import com.jantvrdik.intellij.latte.psi.LatteMacroContent;
 import com.jantvrdik.intellij.latte.psi.elements.LatteMacroModifierElement;
+import com.jantvrdik.intellij.latte.psi.impl.LattePsiImplUtil;
+import com.jantvrdik.intellij.latte.psi.stubs.LatteMacroModifierStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 
-public abstract class LatteMacroModifierElementImpl extends ASTWrapperPsiElement implements LatteMacroModifierElement {
+public abstract class LatteMacroModifierElementImpl extends StubBasedPsiElementBase<LatteMacroModifierStub> implements LatteMacroModifierElement {
 
 	public LatteMacroModifierElementImpl(@NotNull ASTNode node) {
 		super(node);
 	}
 
+	public LatteMacroModifierElementImpl(@NotNull LatteMacroModifierStub stub, @NotNull IStubElementType nodeType) {
+		super(stub, nodeType);
+	}
+
 	@Nullable
 	public LatteMacroContent getMacroContent() {
 		return findChildByClass(LatteMacroContent.class);
@@ -43,6 +49,6 @@ public abstract class LatteMacroModifierElementImpl extends ASTWrapperPsiElement
 
 	@NotNull
 	public PsiReference[] getReferences() {
-		return ReferenceProvidersRegistry.getReferencesFromProviders(this);
+		return LattePsiImplUtil.getCachedReferences(this);
 	}
 }
\ No newline at end of file
@@ -1,19 +1,25 @@
 package com.jantvrdik.intellij.latte.psi.impl.elements;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
 import com.jantvrdik.intellij.latte.psi.elements.LattePhpClassElement;
+import com.jantvrdik.intellij.latte.psi.impl.LattePsiImplUtil;
+import com.jantvrdik.intellij.latte.psi.stubs.LattePhpClassStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class LattePhpClassElementImpl extends ASTWrapperPsiElement implements LattePhpClassElement {
+public abstract class LattePhpClassElementImpl extends StubBasedPsiElementBase<LattePhpClassStub> implements LattePhpClassElement {
 
 	public LattePhpClassElementImpl(@NotNull ASTNode node) {
 		super(node);
 	}
 
+	public LattePhpClassElementImpl(@NotNull LattePhpClassStub stub, @NotNull IStubElementType nodeType) {
+		super(stub, nodeType);
+	}
+
 	@Override
 	public String getPhpElementName()
 	{
@@ -28,6 +34,6 @@ public abstract class LattePhpClassElementImpl extends ASTWrapperPsiElement impl
 
 	@NotNull
 	public PsiReference[] getReferences() {
-		return ReferenceProvidersRegistry.getReferencesFromProviders(this);
+		return LattePsiImplUtil.getCachedReferences(this);
 	}
 }
\ No newline at end of file
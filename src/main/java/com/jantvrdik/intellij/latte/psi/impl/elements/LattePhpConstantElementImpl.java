@@ -1,19 +1,25 @@
 package com.jantvrdik.intellij.latte.psi.impl.elements;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
 import com.jantvrdik.intellij.latte.psi.elements.LattePhpConstantElement;
+import com.jantvrdik.intellij.latte.psi.impl.LattePsiImplUtil;
+import com.jantvrdik.intellij.latte.psi.stubs.LattePhpConstantStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class LattePhpConstantElementImpl extends ASTWrapperPsiElement implements LattePhpConstantElement {
+public abstract class LattePhpConstantElementImpl extends StubBasedPsiElementBase<LattePhpConstantStub> implements LattePhpConstantElement {
 
 	public LattePhpConstantElementImpl(@NotNull ASTNode node) {
 		super(node);
 	}
 
+	public LattePhpConstantElementImpl(@NotNull LattePhpConstantStub stub, @NotNull IStubElementType nodeType) {
+		super(stub, nodeType);
+	}
+
 	@Override
 	public String getPhpElementName()
 	{
@@ -28,6 +34,6 @@ public abstract class LattePhpConstantElementImpl extends ASTWrapperPsiElement i
 
 	@NotNull
 	public PsiReference[] getReferences() {
-		return ReferenceProvidersRegistry.getReferencesFromProviders(this);
+		return LattePsiImplUtil.getCachedReferences(this);
 	}
 }
\ No newline at end of file
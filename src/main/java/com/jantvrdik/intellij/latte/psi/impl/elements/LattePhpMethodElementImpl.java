@@ -1,19 +1,25 @@
 package com.jantvrdik.intellij.latte.psi.impl.elements;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
 import com.jantvrdik.intellij.latte.psi.elements.LattePhpMethodElement;
+import com.jantvrdik.intellij.latte.psi.impl.LattePsiImplUtil;
+import com.jantvrdik.intellij.latte.psi.stubs.LattePhpMethodStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class LattePhpMethodElementImpl extends ASTWrapperPsiElement implements LattePhpMethodElement {
+public abstract class LattePhpMethodElementImpl extends StubBasedPsiElementBase<LattePhpMethodStub> implements LattePhpMethodElement {
 
 	public LattePhpMethodElementImpl(@NotNull ASTNode node) {
 		super(node);
 	}
 
+	public LattePhpMethodElementImpl(@NotNull LattePhpMethodStub stub, @NotNull IStubElementType nodeType) {
+		super(stub, nodeType);
+	}
+
 	@Override
 	public String getPhpElementName()
 	{
@@ -28,6 +34,6 @@ public abstract class LattePhpMethodElementImpl extends ASTWrapperPsiElement imp
 
 	@NotNull
 	public PsiReference[] getReferences() {
-		return ReferenceProvidersRegistry.getReferencesFromProviders(this);
+		return LattePsiImplUtil.getCachedReferences(this);
 	}
 }
\ No newline at end of file
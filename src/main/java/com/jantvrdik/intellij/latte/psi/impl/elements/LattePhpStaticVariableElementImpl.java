@@ -1,19 +1,25 @@
 package com.jantvrdik.intellij.latte.psi.impl.elements;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.source.resolve.reference.ReferenceProvidersRegistry;
+import com.intellij.psi.stubs.IStubElementType;
 import com.jantvrdik.intellij.latte.psi.elements.LattePhpStaticVariableElement;
+import com.jantvrdik.intellij.latte.psi.impl.LattePsiImplUtil;
+import com.jantvrdik.intellij.latte.psi.stubs.LattePhpStaticVariableStub;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class LattePhpStaticVariableElementImpl extends ASTWrapperPsiElement implements LattePhpStaticVariableElement {
+public abstract class LattePhpStaticVariableElementImpl extends StubBasedPsiElementBase<LattePhpStaticVariableStub> implements LattePhpStaticVariableElement {
 
 	public LattePhpStaticVariableElementImpl(@NotNull ASTNode node) {
 		super(node);
 	}
 
+	public LattePhpStaticVariableElementImpl(@NotNull LattePhpStaticVariableStub stub, @NotNull IStubElementType nodeType) {
+		super(stub, nodeType);
+	}
+
 	@Override
 	public String getPhpElementName()
 	{
@@ -28,6 +34,6 @@ public abstract class LattePhpStaticVariableElementImpl extends ASTWrapperPsiEle
 
 	@NotNull
 	public PsiReference[] getReferences() {
-		return ReferenceProvidersRegistry.getReferencesFromProviders(this);
+		return LattePsiImplUtil.getCachedReferences(this);
 	}
 }
\ No newline at end of file
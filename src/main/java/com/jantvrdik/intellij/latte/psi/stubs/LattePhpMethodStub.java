@@ -0,0 +1,14 @@
+package com.jantvrdik.intellij.latte.psi.stubs;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.NamedStubBase;
+import com.intellij.psi.stubs.StubElement;
+import com.jantvrdik.intellij.latte.psi.LattePhpMethod;
+import org.jetbrains.annotations.Nullable;
+
+public class LattePhpMethodStub extends NamedStubBase<LattePhpMethod> {
+
+	public LattePhpMethodStub(StubElement parent, IStubElementType elementType, @Nullable String name) {
+		super(parent, elementType, name);
+	}
+}
@@ -0,0 +1,85 @@
+package com.jantvrdik.intellij.latte.psi.stubs;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.stubs.*;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Element type of named Latte elements stored in stubs and indexed by their name.
+ */
+public class LatteStubElementType<S extends NamedStubBase<P>, P extends PsiNamedElement> extends IStubElementType<S, P> {
+
+	public interface StubFactory<S> {
+		S createStub(StubElement parent, IStubElementType elementType, @Nullable String name);
+	}
+
+	public interface PsiFactory<S, P> {
+		P createPsi(S stub, IStubElementType elementType);
+	}
+
+	private final StubFactory<S> stubFactory;
+	private final PsiFactory<S, P> psiFactory;
+	private final Function<P, String> nameGetter;
+	private final StubIndexKey<String, ? extends P> indexKey;
+
+	public LatteStubElementType(
+			@NotNull String debugName,
+			@NotNull StubFactory<S> stubFactory,
+			@NotNull PsiFactory<S, P> psiFactory,
+			@NotNull Function<P, String> nameGetter,
+			@NotNull StubIndexKey<String, ? extends P> indexKey
+	) {
+		super(debugName, LatteLanguage.INSTANCE);
+		this.stubFactory = stubFactory;
+		this.psiFactory = psiFactory;
+		this.nameGetter = nameGetter;
+		this.indexKey = indexKey;
+	}
+
+	@Override
+	public P createPsi(@NotNull S stub) {
+		return psiFactory.createPsi(stub, this);
+	}
+
+	@NotNull
+	@Override
+	public S createStub(@NotNull P psi, StubElement parentStub) {
+		return stubFactory.createStub(parentStub, this, nameGetter.apply(psi));
+	}
+
+	@NotNull
+	@Override
+	public String getExternalId() {
+		return "latte." + toString();
+	}
+
+	@Override
+	public void serialize(@NotNull S stub, @NotNull StubOutputStream dataStream) throws IOException {
+		dataStream.writeName(stub.getName());
+	}
+
+	@NotNull
+	@Override
+	public S deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+		return stubFactory.createStub(parentStub, this, dataStream.readNameString());
+	}
+
+	@Override
+	public void indexStub(@NotNull S stub, @NotNull IndexSink sink) {
+		String name = stub.getName();
+		if (name != null) {
+			sink.occurrence(indexKey, name);
+		}
+	}
+
+	@Override
+	public boolean shouldCreateStub(ASTNode node) {
+		return true;
+	}
+}
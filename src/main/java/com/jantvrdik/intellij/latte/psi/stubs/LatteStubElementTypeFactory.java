@@ -0,0 +1,43 @@
+package com.jantvrdik.intellij.latte.psi.stubs;
+
+import com.intellij.psi.tree.IElementType;
+import com.jantvrdik.intellij.latte.indexes.*;
+import com.jantvrdik.intellij.latte.psi.*;
+import com.jantvrdik.intellij.latte.psi.impl.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Used by generated LatteTypes for elements which are stored in stubs (see elementTypeFactory in LatteParser.bnf).
+ */
+public class LatteStubElementTypeFactory {
+
+	public static IElementType createElementType(@NotNull String name) {
+		switch (name) {
+			case "PHP_METHOD":
+				return new LatteStubElementType<LattePhpMethodStub, LattePhpMethod>(
+						name, LattePhpMethodStub::new, LattePhpMethodImpl::new, LattePhpMethod::getMethodName, LattePhpMethodStubIndex.KEY
+				);
+			case "PHP_PROPERTY":
+				return new LatteStubElementType<LattePhpPropertyStub, LattePhpProperty>(
+						name, LattePhpPropertyStub::new, LattePhpPropertyImpl::new, LattePhpProperty::getPropertyName, LattePhpPropertyStubIndex.KEY
+				);
+			case "PHP_CONSTANT":
+				return new LatteStubElementType<LattePhpConstantStub, LattePhpConstant>(
+						name, LattePhpConstantStub::new, LattePhpConstantImpl::new, LattePhpConstant::getConstantName, LattePhpConstantStubIndex.KEY
+				);
+			case "PHP_STATIC_VARIABLE":
+				return new LatteStubElementType<LattePhpStaticVariableStub, LattePhpStaticVariable>(
+						name, LattePhpStaticVariableStub::new, LattePhpStaticVariableImpl::new, LattePhpStaticVariable::getVariableName, LattePhpStaticVariableStubIndex.KEY
+				);
+			case "PHP_CLASS":
+				return new LatteStubElementType<LattePhpClassStub, LattePhpClass>(
+						name, LattePhpClassStub::new, LattePhpClassImpl::new, LattePhpClass::getClassName, LattePhpClassStubIndex.KEY
+				);
+			case "MACRO_MODIFIER":
+				return new LatteStubElementType<LatteMacroModifierStub, LatteMacroModifier>(
+						name, LatteMacroModifierStub::new, LatteMacroModifierImpl::new, LatteMacroModifier::getModifierName, LatteMacroModifierStubIndex.KEY
+				);
+		}
+		throw new IllegalArgumentException("Unknown stub element type: " + name);
+	}
+}
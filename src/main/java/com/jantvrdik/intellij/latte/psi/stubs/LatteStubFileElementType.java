@@ -0,0 +1,25 @@
+package com.jantvrdik.intellij.latte.psi.stubs;
+
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.tree.IStubFileElementType;
+import com.jantvrdik.intellij.latte.LatteLanguage;
+import com.jantvrdik.intellij.latte.psi.LatteFile;
+import org.jetbrains.annotations.NotNull;
+
+public class LatteStubFileElementType extends IStubFileElementType<PsiFileStub<LatteFile>> {
+
+	public LatteStubFileElementType() {
+		super("LATTE_FILE", LatteLanguage.INSTANCE);
+	}
+
+	@Override
+	public int getStubVersion() {
+		return 2;
+	}
+
+	@NotNull
+	@Override
+	public String getExternalId() {
+		return "latte.FILE";
+	}
+}
@@ -4,6 +4,8 @@ import com.intellij.lang.cacheBuilder.*;
 import com.intellij.lang.findUsages.FindUsagesProvider;
 import com.intellij.psi.*;
 import com.intellij.psi.tree.TokenSet;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockUsage;
 import com.jantvrdik.intellij.latte.lexer.LatteMacroLexerAdapter;
 import com.jantvrdik.intellij.latte.psi.LattePhpVariable;
 import com.jantvrdik.intellij.latte.psi.LatteTypes;
@@ -23,7 +25,10 @@ public class LatteFindUsagesProvider implements FindUsagesProvider {
 
     @Override
     public boolean canFindUsagesFor(@NotNull PsiElement psiElement) {
-        return psiElement instanceof LattePhpVariable && ((LattePhpVariable) psiElement).isDefinition();
+        if (psiElement instanceof LattePhpVariable) {
+            return ((LattePhpVariable) psiElement).isDefinition();
+        }
+        return isBlockDefinition(psiElement);
     }
 
     @Nullable
@@ -37,6 +42,8 @@ public class LatteFindUsagesProvider implements FindUsagesProvider {
     public String getType(@NotNull PsiElement element) {
         if (element instanceof LattePhpVariable) {
             return "latte variable";
+        } else if (isBlockDefinition(element)) {
+            return "latte block";
         } else {
             return "";
         }
@@ -47,6 +54,9 @@ public class LatteFindUsagesProvider implements FindUsagesProvider {
     public String getDescriptiveName(@NotNull PsiElement element) {
         if (element instanceof LattePhpVariable) {
             return ((LattePhpVariable) element).getVariableName();
+        } else if (isBlockDefinition(element)) {
+            String blockName = LatteBlockIndex.getBlockName(element);
+            return blockName != null ? blockName : "";
         } else {
             return "";
         }
@@ -57,8 +67,15 @@ public class LatteFindUsagesProvider implements FindUsagesProvider {
     public String getNodeText(@NotNull PsiElement element, boolean useFullName) {
         if (element instanceof LattePhpVariable) {
             return ((LattePhpVariable) element).getVariableName();
+        } else if (isBlockDefinition(element)) {
+            String blockName = LatteBlockIndex.getBlockName(element);
+            return blockName != null ? blockName : "";
         } else {
             return "";
         }
     }
+
+    private static boolean isBlockDefinition(@NotNull PsiElement element) {
+        return (LatteBlockIndex.getKind(element) & LatteBlockUsage.DEFINITION) != 0 && LatteBlockIndex.getBlockName(element) != null;
+    }
 }
@@ -4,6 +4,8 @@ import com.intellij.openapi.util.TextRange;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.*;
 import com.intellij.util.ProcessingContext;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockUsage;
 import com.jantvrdik.intellij.latte.psi.*;
 import com.jantvrdik.intellij.latte.reference.references.*;
 import org.jetbrains.annotations.NotNull;
@@ -152,7 +154,13 @@ public class LatteReferenceContributor extends PsiReferenceContributor {
                             return PsiReference.EMPTY_ARRAY;
                         }
                         int length = element instanceof LatteMacroCloseTag ? 2 : 1;
-                        return new PsiReference[]{new LatteMacroTagReference((LatteMacroTag) element, new TextRange(1, valueLength + length))};
+                        PsiReference tagReference = new LatteMacroTagReference((LatteMacroTag) element, new TextRange(1, valueLength + length));
+
+                        TextRange blockName = LatteBlockIndex.getKind(element) == LatteBlockUsage.INCLUDE ? LatteBlockIndex.getBlockNameRange(element) : null;
+                        if (blockName != null) {
+                            return new PsiReference[]{tagReference, new LatteBlockReference((LatteMacroTag) element, blockName)};
+                        }
+                        return new PsiReference[]{tagReference};
                     }
                 });
 
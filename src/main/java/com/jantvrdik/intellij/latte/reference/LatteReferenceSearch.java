@@ -2,43 +2,166 @@ package com.jantvrdik.intellij.latte.reference;
 
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.search.*;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
 import com.intellij.util.Processor;
-import com.jantvrdik.intellij.latte.psi.LattePhpClass;
-import com.jantvrdik.intellij.latte.psi.LattePhpStaticVariable;
-import com.jantvrdik.intellij.latte.psi.LattePhpVariable;
-import com.jantvrdik.intellij.latte.reference.references.LattePhpClassReference;
-import com.jantvrdik.intellij.latte.reference.references.LattePhpStaticVariableReference;
-import com.jantvrdik.intellij.latte.reference.references.LattePhpVariableReference;
+import com.jantvrdik.intellij.latte.indexes.*;
+import com.jantvrdik.intellij.latte.psi.*;
+import com.jantvrdik.intellij.latte.psi.elements.BaseLattePhpElement;
+import com.jantvrdik.intellij.latte.reference.references.*;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
+import com.jetbrains.php.PhpIndex;
 import com.jetbrains.php.lang.psi.elements.Field;
+import com.jetbrains.php.lang.psi.elements.Method;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
+import java.util.*;
 
 public class LatteReferenceSearch extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
 
     @Override
     public void processQuery(ReferencesSearch.SearchParameters searchParameters, @NotNull Processor<? super PsiReference> processor) {
-        if (searchParameters.getElementToSearch() instanceof Field) {
+        if (searchParameters.getElementToSearch() instanceof Method) {
+            processMethod((Method) searchParameters.getElementToSearch(), searchParameters.getScopeDeterminedByUser(), processor);
+
+        } else if (searchParameters.getElementToSearch() instanceof Field && ((Field) searchParameters.getElementToSearch()).isConstant()) {
+            processConstant((Field) searchParameters.getElementToSearch(), searchParameters.getScopeDeterminedByUser(), processor);
+
+        } else if (searchParameters.getElementToSearch() instanceof Field) {
             processField((Field) searchParameters.getElementToSearch(), searchParameters.getScopeDeterminedByUser(), processor);
 
         } else if (searchParameters.getElementToSearch() instanceof PhpClass) {
             processClass((PhpClass) searchParameters.getElementToSearch(), searchParameters.getScopeDeterminedByUser(), processor);
+
+        } else if (searchParameters.getElementToSearch() instanceof LatteMacroTag || searchParameters.getElementToSearch() instanceof LatteNetteAttr) {
+            processBlock(searchParameters.getElementToSearch(), searchParameters.getScopeDeterminedByUser(), processor);
         }
     }
 
+    /**
+     * Usages of {block}, {define} or n:block are looked up in LatteBlockIndex, so only templates including the block are loaded.
+     */
+    private void processBlock(@NotNull PsiElement element, @NotNull SearchScope searchScope, @NotNull Processor<? super PsiReference> processor) {
+        ApplicationManager.getApplication().runReadAction(() -> {
+            if ((LatteBlockIndex.getKind(element) & LatteBlockUsage.DEFINITION) == 0) {
+                return;
+            }
+            String blockName = LatteBlockIndex.getBlockName(element);
+            if (blockName == null) {
+                return;
+            }
+
+            GlobalSearchScope scope = searchScope instanceof GlobalSearchScope
+                    ? (GlobalSearchScope) searchScope
+                    : GlobalSearchScope.allScope(element.getProject());
+            for (PsiElement usage : LatteBlockIndex.findElements(element.getProject(), blockName, LatteBlockUsage.INCLUDE, scope)) {
+                TextRange range = LatteBlockIndex.getBlockNameRange(usage);
+                if (range != null && usage instanceof LatteMacroTag && PsiSearchScopeUtil.isInScope(searchScope, usage)) {
+                    processor.process(new LatteBlockReference((LatteMacroTag) usage, range));
+                }
+            }
+        });
+    }
+
+    /**
+     * Candidates are Latte methods from files where LattePhpMemberIndex knows the name with a matching receiver (or an unknown one),
+     * only these candidates are resolved.
+     */
+    private void processMethod(@NotNull Method method, @NotNull SearchScope searchScope, @NotNull Processor<? super PsiReference> processor) {
+        ApplicationManager.getApplication().runReadAction(() -> {
+            PhpClass containingClass = method.getContainingClass();
+            if (containingClass == null) {
+                return;
+            }
+
+            String methodName = method.getName();
+            Collection<LattePhpMethod> candidates = findCandidates(
+                    containingClass, methodName, LattePhpMemberUsage.METHOD, LattePhpMethodStubIndex.KEY, LattePhpMethod.class, searchScope
+            );
+            for (LattePhpMethod candidate : candidates) {
+                PsiElement value = candidate.getTextElement();
+                if (value != null && !candidate.isFunction() && LattePhpUtil.getMethodsForPhpElement(candidate).contains(method)) {
+                    processor.process(new LattePhpMethodReference(candidate, new TextRange(0, value.getTextLength())));
+                }
+            }
+        });
+    }
+
+    private void processConstant(@NotNull Field constant, @NotNull SearchScope searchScope, @NotNull Processor<? super PsiReference> processor) {
+        ApplicationManager.getApplication().runReadAction(() -> {
+            PhpClass containingClass = constant.getContainingClass();
+            if (containingClass == null) {
+                return;
+            }
+
+            String constantName = constant.getName();
+            Collection<LattePhpConstant> candidates = findCandidates(
+                    containingClass, constantName, LattePhpMemberUsage.CONSTANT, LattePhpConstantStubIndex.KEY, LattePhpConstant.class, searchScope
+            );
+            for (LattePhpConstant candidate : candidates) {
+                PsiElement value = candidate.getTextElement();
+                if (value != null && LattePhpUtil.getFieldsForPhpElement(candidate).contains(constant)) {
+                    processor.process(new LattePhpConstantReference(candidate, new TextRange(0, value.getTextLength())));
+                }
+            }
+        });
+    }
+
+    /**
+     * Latte elements with given name from files which use the name on the class, on its subclass or on an unknown receiver.
+     */
+    @NotNull
+    private static <T extends BaseLattePhpElement> Collection<T> findCandidates(
+            @NotNull PhpClass phpClass,
+            @NotNull String name,
+            int kind,
+            @NotNull StubIndexKey<String, T> indexKey,
+            @NotNull Class<T> elementClass,
+            @NotNull SearchScope searchScope
+    ) {
+        Project project = phpClass.getProject();
+        List<PhpClass> classes = new ArrayList<PhpClass>();
+        classes.add(phpClass);
+        classes.addAll(PhpIndex.getInstance(project).getAllSubclasses(phpClass.getFQN()));
+
+        Collection<VirtualFile> files = LattePhpMemberIndex.findFiles(project, name, kind, classes);
+        if (files.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        GlobalSearchScope scope = GlobalSearchScope.filesScope(project, files);
+        if (searchScope instanceof GlobalSearchScope) {
+            scope = scope.intersectWith((GlobalSearchScope) searchScope);
+        }
+
+        List<T> out = new ArrayList<T>();
+        for (T element : StubIndex.getElements(indexKey, name, project, scope, elementClass)) {
+            if (name.equals(element.getPhpElementName()) && PsiSearchScopeUtil.isInScope(searchScope, element)) {
+                out.add(element);
+            }
+        }
+        return out;
+    }
+
     private void processClass(@NotNull PhpClass phpClass, @NotNull SearchScope searchScope, @NotNull Processor<? super PsiReference> processor) {
         ApplicationManager.getApplication().runReadAction(() -> {
             String fieldName = phpClass.getFQN();
+            Collection<VirtualFile> files = LattePhpMemberIndex.findFiles(phpClass.getProject(), fieldName, LattePhpMemberUsage.CLASS, null);
+            if (files.isEmpty()) {
+                return;
+            }
 
+            SearchScope scope = searchScope.intersectWith(GlobalSearchScope.filesScope(phpClass.getProject(), files));
             PsiSearchHelper.SERVICE.getInstance(phpClass.getProject())
                     .processElementsWithWord(new TextOccurenceProcessor() {
                         @Override
@@ -51,7 +174,7 @@ public class LatteReferenceSearch extends QueryExecutorBase<PsiReference, Refere
                             }
                             return true;
                         }
-                    }, searchScope, fieldName.startsWith("\\") ? fieldName.substring(1) : fieldName, UsageSearchContext.IN_CODE, true);
+                    }, scope, fieldName.startsWith("\\") ? fieldName.substring(1) : fieldName, UsageSearchContext.IN_CODE, true);
         });
     }
 
@@ -61,7 +184,12 @@ public class LatteReferenceSearch extends QueryExecutorBase<PsiReference, Refere
                 return;
             }
             String fieldName = field.getName();
+            Collection<VirtualFile> files = findFieldFiles(field);
+            if (files.isEmpty()) {
+                return;
+            }
 
+            SearchScope scope = searchScope.intersectWith(GlobalSearchScope.filesScope(field.getProject(), files));
             PsiSearchHelper.SERVICE.getInstance(field.getProject())
                     .processElementsWithWord(new TextOccurenceProcessor() {
                         @Override
@@ -91,8 +219,27 @@ public class LatteReferenceSearch extends QueryExecutorBase<PsiReference, Refere
                             }
                             return true;
                         }
-                    }, searchScope, "$" + fieldName, UsageSearchContext.IN_CODE, true);
+                    }, scope, "$" + fieldName, UsageSearchContext.IN_CODE, true);
             // ProjectScope.getProjectScope(field.getProject())
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Latte files which can use the field: files with static variable of the same name
+     * and files with {templateType} of the field class or of its subclasses.
+     */
+    @NotNull
+    private static Collection<VirtualFile> findFieldFiles(@NotNull Field field) {
+        Project project = field.getProject();
+        Set<VirtualFile> files = new HashSet<VirtualFile>(LattePhpMemberIndex.findFiles(project, field.getName(), LattePhpMemberUsage.STATIC_VARIABLE, null));
+
+        PhpClass containingClass = field.getContainingClass();
+        if (containingClass != null) {
+            files.addAll(LattePhpMemberIndex.findFiles(project, containingClass.getFQN(), LattePhpMemberUsage.CLASS, null));
+            for (PhpClass subclass : PhpIndex.getInstance(project).getAllSubclasses(containingClass.getFQN())) {
+                files.addAll(LattePhpMemberIndex.findFiles(project, subclass.getFQN(), LattePhpMemberUsage.CLASS, null));
+            }
+        }
+        return files;
+    }
+}
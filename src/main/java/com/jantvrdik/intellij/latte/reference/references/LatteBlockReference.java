@@ -0,0 +1,99 @@
+package com.jantvrdik.intellij.latte.reference.references;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteBlockUsage;
+import com.jantvrdik.intellij.latte.indexes.LatteTemplateUsage;
+import com.jantvrdik.intellij.latte.psi.LatteMacroTag;
+import com.jantvrdik.intellij.latte.utils.LatteTemplateGraph;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Block name in {include #name}, resolved to {block} and {define} tags (or n:block attributes) found by LatteBlockIndex
+ * in the current template and templates related by {extends}, {import} or {embed}.
+ */
+public class LatteBlockReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
+
+    private static final ResolveCache.PolyVariantResolver<LatteBlockReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
+    private static final int PARENT_KINDS = LatteTemplateUsage.EXTENDS | LatteTemplateUsage.IMPORT | LatteTemplateUsage.EMBED;
+    private static final int CHILD_KINDS = LatteTemplateUsage.EXTENDS | LatteTemplateUsage.EMBED;
+
+    private final String name;
+
+    public LatteBlockReference(@NotNull LatteMacroTag element, TextRange textRange) {
+        super(element, textRange);
+        name = textRange.substring(element.getText());
+    }
+
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
+    @NotNull
+    @Override
+    public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    /**
+     * Only the current template and its parents and children (see LatteTemplateGraph) are searched,
+     * results are ordered from the nearest template: current file, parent layouts, child templates.
+     */
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
+        PsiFile file = getElement().getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getOriginalFile().getVirtualFile() : null;
+        if (virtualFile == null) {
+            return ResolveResult.EMPTY_ARRAY;
+        }
+
+        Project project = getElement().getProject();
+        LatteTemplateGraph graph = LatteTemplateGraph.getInstance(project);
+        List<VirtualFile> files = new ArrayList<VirtualFile>();
+        files.add(virtualFile);
+        files.addAll(graph.getReferencedTemplatesDeep(virtualFile, PARENT_KINDS));
+        files.addAll(graph.getReferencingTemplatesDeep(virtualFile, CHILD_KINDS));
+
+        List<PsiElement> definitions = new ArrayList<PsiElement>(
+                LatteBlockIndex.findElements(project, name, LatteBlockUsage.DEFINITION, GlobalSearchScope.filesScope(project, files))
+        );
+        definitions.sort(Comparator.comparingInt(definition -> files.indexOf(definition.getContainingFile().getVirtualFile())));
+
+        List<ResolveResult> results = new ArrayList<ResolveResult>();
+        for (PsiElement definition : definitions) {
+            results.add(new PsiElementResolveResult(definition));
+        }
+        return results.toArray(new ResolveResult[results.size()]);
+    }
+
+    /**
+     * Nearest definition, overridden blocks have more of them.
+     */
+    @Nullable
+    @Override
+    public PsiElement resolve() {
+        ResolveResult[] resolveResults = multiResolve(false);
+        return resolveResults.length > 0 ? resolveResults[0].getElement() : null;
+    }
+
+    @Override
+    public boolean isReferenceTo(@NotNull PsiElement element) {
+        return (LatteBlockIndex.getKind(element) & LatteBlockUsage.DEFINITION) != 0 && name.equals(LatteBlockIndex.getBlockName(element));
+    }
+
+    @NotNull
+    @Override
+    public Object[] getVariants() {
+        return new Object[0];
+    }
+}
@@ -2,6 +2,7 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.LatteMacroModifier;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
 import org.jetbrains.annotations.NotNull;
@@ -13,6 +14,8 @@ import java.util.List;
 
 public class LatteMacroModifierReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
 
+    private static final ResolveCache.PolyVariantResolver<LatteMacroModifierReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     private final String modifierName;
 
     public LatteMacroModifierReference(@NotNull LatteMacroModifier element, TextRange textRange) {
@@ -20,9 +23,17 @@ public class LatteMacroModifierReference extends PsiReferenceBase<PsiElement> im
         modifierName = element.getModifierName();
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
     public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
         List<ResolveResult> results = new ArrayList<ResolveResult>();
         final Collection<LatteMacroModifier> modifiers = LatteUtil.findModifiers(getElement().getProject(), modifierName);
         for (LatteMacroModifier modifier : modifiers) {
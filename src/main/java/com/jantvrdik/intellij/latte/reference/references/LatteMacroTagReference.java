@@ -2,6 +2,7 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.LatteMacroClassic;
 import com.jantvrdik.intellij.latte.psi.LatteMacroTag;
 import org.jetbrains.annotations.NotNull;
@@ -12,13 +13,23 @@ import java.util.List;
 
 public class LatteMacroTagReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
 
+    private static final ResolveCache.PolyVariantResolver<LatteMacroTagReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     public LatteMacroTagReference(@NotNull LatteMacroTag element, TextRange textRange) {
         super(element, textRange);
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
     public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
         PsiElement parent = getElement().getParent();
         if (!(parent instanceof LatteMacroClassic)) {
             return new ResolveResult[0];
@@ -2,6 +2,7 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.LattePhpClass;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
@@ -14,18 +15,28 @@ import java.util.Collection;
 import java.util.List;
 
 public class LattePhpClassReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
+
+    private static final ResolveCache.PolyVariantResolver<LattePhpClassReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     private String className;
-    private Collection<PhpClass> phpClasses;
 
     public LattePhpClassReference(@NotNull LattePhpClass element, TextRange textRange) {
         super(element, textRange);
         className = element.getClassName();
-        phpClasses = element.getPhpType().getPhpClasses(element.getProject());
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
-    public ResolveResult[] multiResolve(boolean b) {
+    public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
+        Collection<PhpClass> phpClasses = ((LattePhpClass) getElement()).getPhpType().getPhpClasses(getElement().getProject());
         if (phpClasses.size() == 0) {
             return new ResolveResult[0];
         }
@@ -2,6 +2,7 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.LattePhpMethod;
 import com.jantvrdik.intellij.latte.psi.elements.BaseLattePhpElement;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
@@ -17,28 +18,40 @@ import java.util.Collection;
 import java.util.List;
 
 public class LattePhpMethodReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
+
+    private static final ResolveCache.PolyVariantResolver<LattePhpMethodReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     private String methodName;
-    private Collection<PhpClass> phpClasses;
 
     public LattePhpMethodReference(@NotNull LattePhpMethod element, TextRange textRange) {
         super(element, textRange);
         methodName = element.getMethodName();
-        phpClasses = element.getPhpType().getPhpClasses(element.getProject());
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
-    public ResolveResult[] multiResolve(boolean b) {
+    public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
         if (((LattePhpMethod) getElement()).isFunction()) {
             return multiResolveFunction();
-        } else if (phpClasses.size() == 0) {
+        }
+
+        Collection<PhpClass> phpClasses = ((LattePhpMethod) getElement()).getPhpType().getPhpClasses(getElement().getProject());
+        if (phpClasses.size() == 0) {
             return new ResolveResult[0];
         }
-        return multiResolveMethod();
+        return multiResolveMethod(phpClasses);
     }
 
     @NotNull
-    public ResolveResult[] multiResolveMethod() {
+    public ResolveResult[] multiResolveMethod(@NotNull Collection<PhpClass> phpClasses) {
         List<ResolveResult> results = new ArrayList<ResolveResult>();
         final Collection<LattePhpMethod> methods = LatteUtil.findMethods(getElement().getProject(), methodName, phpClasses);
         for (BaseLattePhpElement method : methods) {
@@ -78,17 +91,13 @@ public class LattePhpMethodReference extends PsiReferenceBase<PsiElement> implem
     @Nullable
     @Override
     public PsiElement resolve() {
-        if (((LattePhpMethod) getElement()).isFunction()) {
-            List<Function> phpFunctions = new ArrayList<>(LattePhpUtil.getFunctionByName(
-                    getElement().getProject(),
-                    ((LattePhpMethod) getElement()).getMethodName()
-            ));
-            return phpFunctions.size() > 0 ? phpFunctions.get(0) : null;
-
-        } else {
-            List<Method> phpMethods = LattePhpUtil.getMethodsForPhpElement((LattePhpMethod) getElement());
-            return phpMethods.size() > 0 ? phpMethods.get(0) : null;
+        // Method is a Function too, Latte usages of the method are skipped
+        for (ResolveResult result : multiResolve(false)) {
+            if (result.getElement() instanceof Function) {
+                return result.getElement();
+            }
         }
+        return null;
     }
 
     @NotNull
@@ -2,6 +2,7 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.LattePhpProperty;
 import com.jantvrdik.intellij.latte.psi.elements.BaseLattePhpElement;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
@@ -16,18 +17,28 @@ import java.util.Collection;
 import java.util.List;
 
 public class LattePhpPropertyReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
+
+    private static final ResolveCache.PolyVariantResolver<LattePhpPropertyReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     private String key;
-    private Collection<PhpClass> phpClasses;
 
     public LattePhpPropertyReference(@NotNull LattePhpProperty element, TextRange textRange) {
         super(element, textRange);
         key = element.getPropertyName();
-        phpClasses = element.getPhpType().getPhpClasses(element.getProject());
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
-    public ResolveResult[] multiResolve(boolean b) {
+    public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
+        Collection<PhpClass> phpClasses = ((LattePhpProperty) getElement()).getPhpType().getPhpClasses(getElement().getProject());
         if (phpClasses.size() == 0) {
             return new ResolveResult[0];
         }
@@ -52,8 +63,12 @@ public class LattePhpPropertyReference extends PsiReferenceBase<PsiElement> impl
     @Nullable
     @Override
     public PsiElement resolve() {
-        List<Field> fields = LattePhpUtil.getFieldsForPhpElement((BaseLattePhpElement) getElement());
-        return fields.size() > 0 ? fields.get(0) : null;
+        for (ResolveResult result : multiResolve(false)) {
+            if (result.getElement() instanceof Field) {
+                return result.getElement();
+            }
+        }
+        return null;
     }
 
     @NotNull
@@ -2,20 +2,24 @@ package com.jantvrdik.intellij.latte.reference.references;
 
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.jantvrdik.intellij.latte.psi.*;
 import com.jantvrdik.intellij.latte.psi.elements.BaseLattePhpElement;
+import com.jantvrdik.intellij.latte.utils.LatteFileVariables;
+import com.jantvrdik.intellij.latte.utils.LattePhpClassMembers;
 import com.jantvrdik.intellij.latte.utils.LattePhpType;
 import com.jantvrdik.intellij.latte.utils.LattePhpUtil;
 import com.jantvrdik.intellij.latte.utils.LatteUtil;
 import com.jantvrdik.intellij.latte.utils.PsiPositionedElement;
 import com.jetbrains.php.lang.psi.elements.Field;
-import com.jetbrains.php.lang.psi.elements.PhpClass;
 import org.jetbrains.annotations.*;
 
 import java.util.*;
 
 public class LattePhpVariableReference extends PsiReferenceBase<PsiElement> implements PsiPolyVariantReference {
 
+    private static final ResolveCache.PolyVariantResolver<LattePhpVariableReference> RESOLVER = (reference, incompleteCode) -> reference.multiResolveUncached();
+
     private String variableName;
 
     public LattePhpVariableReference(@NotNull LattePhpVariable element, TextRange textRange) {
@@ -23,9 +27,17 @@ public class LattePhpVariableReference extends PsiReferenceBase<PsiElement> impl
         variableName = element.getVariableName();
     }
 
+    /**
+     * Results are cached in ResolveCache until PSI is changed.
+     */
     @NotNull
     @Override
     public ResolveResult[] multiResolve(boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveUncached() {
         if (getElement().getContainingFile().getVirtualFile() == null) {
             return new ResolveResult[0];
         }
@@ -34,28 +46,21 @@ public class LattePhpVariableReference extends PsiReferenceBase<PsiElement> impl
         LattePhpType fields = LatteUtil.findFirstLatteTemplateType(getElement().getContainingFile());
         String name = ((BaseLattePhpElement) getElement()).getPhpElementName();
         if (fields != null) {
-            for (PhpClass phpClass : fields.getPhpClasses(getElement().getProject())) {
-                for (Field field : phpClass.getFields()) {
-                    if (!field.isConstant() && field.getName().equals(name)) {
-                        results.add(new PsiElementResolveResult(field));
-                    }
-                }
+            for (Field field : LattePhpClassMembers.findFields(fields.getPhpClasses(getElement().getProject()), name, false)) {
+                results.add(new PsiElementResolveResult(field));
             }
         }
 
-        //todo: complete resolving for variables
-        //final List<PsiPositionedElement> variables = LatteUtil.findVariablesInFileBeforeElement(getElement(), getElement().getContainingFile().getVirtualFile(), variableName);
-        final List<PsiPositionedElement> variables = LatteUtil.findVariablesInFile(getElement().getProject(), getElement().getContainingFile().getVirtualFile(), variableName);
-        /*if (!(getElement() instanceof LattePhpVariable)) {
-            return new ResolveResult[0];
+        LatteFileVariables fileVariables = LatteUtil.getFileVariables(getElement().getProject(), getElement().getContainingFile().getVirtualFile());
+        if (fileVariables == null) {
+            return results.toArray(new ResolveResult[results.size()]);
         }
 
-        final List<PsiPositionedElement> variables;
-        if (((LattePhpVariable) getElement()).isVarTypeDefinition()) {
-            variables = LatteUtil.findVariablesInFileAfterElement(getElement(), getElement().getContainingFile().getVirtualFile(), variableName);
-        } else {
-            variables = LatteUtil.findVariablesInFileBeforeElement(getElement(), getElement().getContainingFile().getVirtualFile(), variableName);
-        }*/
+        List<PsiPositionedElement> variables = fileVariables.getVisibleDefinitionsBefore(variableName, LatteUtil.getStartOffsetInFile(getElement()));
+        if (variables.size() == 0) {
+            // template parameters without definition in the template
+            variables = fileVariables.getVariables(variableName);
+        }
 
         for (PsiPositionedElement variable : variables) {
             results.add(new PsiElementResolveResult(variable.getElement()));
@@ -5,7 +5,9 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.intellij.util.xmlb.annotations.Transient;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,7 +21,7 @@ import java.util.List;
 				@Storage("/latte.xml")
 		}
 )
-public class LatteSettings implements PersistentStateComponent<LatteSettings> {
+public class LatteSettings implements PersistentStateComponent<LatteSettings>, ModificationTracker {
 
 	public boolean wasFirstInitialized = false;
 
@@ -41,6 +43,8 @@ public class LatteSettings implements PersistentStateComponent<LatteSettings> {
 
 	public List<LatteCustomFunctionSettings> customFunctionSettings = new ArrayList<>();
 
+	private long modificationCount = 0;
+
 	public static LatteSettings getInstance(Project project) {
 		return ServiceManager.getService(project, LatteSettings.class);
 	}
@@ -65,6 +69,7 @@ public class LatteSettings implements PersistentStateComponent<LatteSettings> {
 			customMacroSettings.addAll(Arrays.asList(DefaultSettings.getDefaultMacros()));
 
 			wasFirstInitialized = true;
+			incModificationCount();
 		}
 		return this;
 	}
@@ -72,6 +77,20 @@ public class LatteSettings implements PersistentStateComponent<LatteSettings> {
 	@Override
 	public void loadState(@NotNull LatteSettings settings) {
 		XmlSerializerUtil.copyBean(settings, this);
+		incModificationCount();
+	}
+
+	@Transient
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Must be called after changing settings, cached configuration depends on it.
+	 */
+	public void incModificationCount() {
+		modificationCount++;
 	}
 }
 
@@ -142,6 +142,7 @@ public class LatteCustomFunctionSettingsForm implements Configurable {
 	public void apply() throws ConfigurationException {
 		getSettings().customFunctionSettings = new ArrayList<>(this.tableView.getListTableModel().getItems());
 		getSettings().enableCustomFunctions = enableCustomFunctionsCheckBox.isSelected();
+		getSettings().incModificationCount();
 
 		this.changed = false;
 	}
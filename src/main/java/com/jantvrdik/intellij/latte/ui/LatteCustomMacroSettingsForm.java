@@ -143,6 +143,7 @@ public class LatteCustomMacroSettingsForm implements Configurable {
 	public void apply() throws ConfigurationException {
 		getSettings().customMacroSettings = new ArrayList<>(this.tableView.getListTableModel().getItems());
 		getSettings().enableCustomMacros = enableCustomMacrosCheckBox.isSelected();
+		getSettings().incModificationCount();
 
 		this.changed = false;
 	}
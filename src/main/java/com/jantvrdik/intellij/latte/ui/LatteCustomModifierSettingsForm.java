@@ -9,6 +9,7 @@ import com.intellij.util.ui.ColumnInfo;
 import com.intellij.util.ui.ElementProducer;
 import com.intellij.util.ui.ListTableModel;
 import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.indexes.LatteModifierIndex;
 import com.jantvrdik.intellij.latte.settings.LatteCustomModifierSettings;
 import com.jantvrdik.intellij.latte.settings.LatteSettings;
 import com.jantvrdik.intellij.latte.utils.LatteIdeHelper;
@@ -39,7 +40,8 @@ public class LatteCustomModifierSettingsForm implements Configurable {
 		this.modelList = new ListTableModel<LatteCustomModifierSettings>(
 				new NameColumn(),
 				new HelpColumn(),
-				new DescriptionColumn()
+				new DescriptionColumn(),
+				new UsagesColumn()
 		);
 
 		this.attachItems();
@@ -130,6 +132,7 @@ public class LatteCustomModifierSettingsForm implements Configurable {
 	public void apply() throws ConfigurationException {
 		getSettings().customModifierSettings = new ArrayList<>(this.tableView.getListTableModel().getItems());
 		getSettings().enableCustomModifiers = enableCustomModifiersCheckBox.isSelected();
+		getSettings().incModificationCount();
 
 		this.changed = false;
 	}
@@ -197,6 +200,19 @@ public class LatteCustomModifierSettingsForm implements Configurable {
 		}
 	}
 
+	private class UsagesColumn extends ColumnInfo<LatteCustomModifierSettings, String> {
+
+		public UsagesColumn() {
+			super("Usages");
+		}
+
+		@Nullable
+		@Override
+		public String valueOf(LatteCustomModifierSettings modifierSettings) {
+			return String.valueOf(LatteModifierIndex.getUsageCount(project, modifierSettings.getModifierName()));
+		}
+	}
+
 	private void openModifierDialog(@Nullable LatteCustomModifierSettings customMacroSettings) {
 		LatteCustomModifierSettingsDialog latteVariableDialog;
 		if(customMacroSettings == null) {
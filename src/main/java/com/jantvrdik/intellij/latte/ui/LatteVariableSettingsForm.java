@@ -141,6 +141,7 @@ public class LatteVariableSettingsForm implements Configurable {
 	public void apply() throws ConfigurationException {
 		getSettings().variableSettings = new ArrayList<>(this.tableView.getListTableModel().getItems());
 		getSettings().enableDefaultVariables = enableCustomSignatureTypesCheckBox.isSelected();
+		getSettings().incModificationCount();
 
 		this.changed = false;
 	}
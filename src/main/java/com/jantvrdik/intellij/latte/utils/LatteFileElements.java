@@ -0,0 +1,104 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.jantvrdik.intellij.latte.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Elements of one Latte file which are checked by inspections, collected in one tree walk and cached until the file is changed.
+ */
+public class LatteFileElements {
+
+    private final LatteFileVariables variables = new LatteFileVariables();
+    private final List<LatteMacroTag> macroTags = new ArrayList<LatteMacroTag>();
+    private final Map<String, List<LatteMacroTag>> macroTagsByName = new HashMap<String, List<LatteMacroTag>>();
+    private final List<LatteMacroModifier> modifiers = new ArrayList<LatteMacroModifier>();
+    private final List<LattePhpMethod> methods = new ArrayList<LattePhpMethod>();
+    private final List<LattePhpProperty> properties = new ArrayList<LattePhpProperty>();
+    private final List<LattePhpStaticVariable> staticVariables = new ArrayList<LattePhpStaticVariable>();
+    private final List<LattePhpConstant> constants = new ArrayList<LattePhpConstant>();
+    private final List<LattePhpClass> classes = new ArrayList<LattePhpClass>();
+
+    private LatteFileElements(@NotNull LatteFile file) {
+        file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitElement(PsiElement element) {
+                if (element instanceof LattePhpVariable) {
+                    variables.addVariable((LattePhpVariable) element);
+                    return;
+                }
+
+                if (element instanceof LatteMacroTag) {
+                    LatteMacroTag tag = (LatteMacroTag) element;
+                    macroTags.add(tag);
+                    macroTagsByName.computeIfAbsent(tag.getMacroName(), k -> new ArrayList<LatteMacroTag>()).add(tag);
+                } else if (element instanceof LatteMacroModifier) {
+                    modifiers.add((LatteMacroModifier) element);
+                } else if (element instanceof LattePhpMethod) {
+                    methods.add((LattePhpMethod) element);
+                } else if (element instanceof LattePhpProperty) {
+                    properties.add((LattePhpProperty) element);
+                } else if (element instanceof LattePhpStaticVariable) {
+                    staticVariables.add((LattePhpStaticVariable) element);
+                } else if (element instanceof LattePhpConstant) {
+                    constants.add((LattePhpConstant) element);
+                } else if (element instanceof LattePhpClass) {
+                    classes.add((LattePhpClass) element);
+                } else if (element instanceof LattePairMacro) {
+                    variables.addScope(element, ((LattePairMacro) element).getOpenTag());
+                } else if (element instanceof LatteAutoClosedBlock) {
+                    variables.addScope(element, ((LatteAutoClosedBlock) element).getMacroOpenTag());
+                }
+                super.visitElement(element);
+            }
+        });
+    }
+
+    public static LatteFileElements getInstance(@NotNull LatteFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(new LatteFileElements(file), file));
+    }
+
+    public LatteFileVariables getVariables() {
+        return variables;
+    }
+
+    /**
+     * Open, close and empty macro tags
+     */
+    public List<LatteMacroTag> getMacroTags() {
+        return Collections.unmodifiableList(macroTags);
+    }
+
+    public List<LatteMacroTag> getMacroTags(@NotNull String macroName) {
+        return Collections.unmodifiableList(macroTagsByName.getOrDefault(macroName, Collections.emptyList()));
+    }
+
+    public List<LatteMacroModifier> getModifiers() {
+        return Collections.unmodifiableList(modifiers);
+    }
+
+    public List<LattePhpMethod> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    public List<LattePhpProperty> getProperties() {
+        return Collections.unmodifiableList(properties);
+    }
+
+    public List<LattePhpStaticVariable> getStaticVariables() {
+        return Collections.unmodifiableList(staticVariables);
+    }
+
+    public List<LattePhpConstant> getConstants() {
+        return Collections.unmodifiableList(constants);
+    }
+
+    public List<LattePhpClass> getClasses() {
+        return Collections.unmodifiableList(classes);
+    }
+}
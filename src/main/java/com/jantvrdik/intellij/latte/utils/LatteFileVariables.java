@@ -0,0 +1,167 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import com.intellij.psi.PsiElement;
+import com.jantvrdik.intellij.latte.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Variables of one Latte file grouped by name and sorted by offset, collected by LatteFileElements.
+ */
+public class LatteFileVariables {
+
+    /** loops are not scopes, variables defined in them stay visible after the loop same as in PHP */
+    private static final Set<String> SCOPE_MACROS = new HashSet<String>(Arrays.asList("block", "define"));
+
+    private final LatteScopeTree scopes = new LatteScopeTree();
+
+    private final List<PsiPositionedElement> all = new ArrayList<PsiPositionedElement>();
+    private final List<PsiPositionedElement> allDefinitions = new ArrayList<PsiPositionedElement>();
+    private final Map<String, List<PsiPositionedElement>> variables = new HashMap<String, List<PsiPositionedElement>>();
+    private final Map<String, List<PsiPositionedElement>> definitions = new HashMap<String, List<PsiPositionedElement>>();
+    private final Map<String, List<PsiPositionedElement>> usages = new HashMap<String, List<PsiPositionedElement>>();
+
+    LatteFileVariables() {
+    }
+
+    public static LatteFileVariables getInstance(@NotNull LatteFile file) {
+        return LatteFileElements.getInstance(file).getVariables();
+    }
+
+    void addScope(@NotNull PsiElement element, @Nullable LatteMacroTag openTag) {
+        if (openTag != null && SCOPE_MACROS.contains(openTag.getMacroName())) {
+            int start = LatteUtil.getStartOffsetInFile(element);
+            scopes.add(start, start + element.getTextLength());
+        }
+    }
+
+    void addVariable(@NotNull LattePhpVariable element) {
+        String name = element.getVariableName();
+        if (name == null) {
+            return;
+        }
+
+        PsiPositionedElement positioned = new PsiPositionedElement(LatteUtil.getStartOffsetInFile(element), element);
+        all.add(positioned);
+        variables.computeIfAbsent(name, k -> new ArrayList<PsiPositionedElement>()).add(positioned);
+        if (element.isDefinition()) {
+            allDefinitions.add(positioned);
+            definitions.computeIfAbsent(name, k -> new ArrayList<PsiPositionedElement>()).add(positioned);
+        } else {
+            usages.computeIfAbsent(name, k -> new ArrayList<PsiPositionedElement>()).add(positioned);
+        }
+    }
+
+    /**
+     * @param name variable name without $, null for all variables
+     */
+    public List<PsiPositionedElement> getVariables(@Nullable String name) {
+        return Collections.unmodifiableList(name == null ? all : variables.getOrDefault(name, Collections.emptyList()));
+    }
+
+    public List<PsiPositionedElement> getDefinitions(@Nullable String name) {
+        return Collections.unmodifiableList(name == null ? allDefinitions : definitions.getOrDefault(name, Collections.emptyList()));
+    }
+
+    public List<PsiPositionedElement> getUsages(@NotNull String name) {
+        return Collections.unmodifiableList(usages.getOrDefault(name, Collections.emptyList()));
+    }
+
+    /**
+     * Variables placed before or at given offset
+     */
+    public List<PsiPositionedElement> getVariablesBefore(@Nullable String name, int offset) {
+        return before(getVariables(name), offset);
+    }
+
+    /**
+     * Variables placed at or after given offset
+     */
+    public List<PsiPositionedElement> getVariablesAfter(@Nullable String name, int offset) {
+        return after(getVariables(name), offset);
+    }
+
+    public List<PsiPositionedElement> getDefinitionsBefore(@Nullable String name, int offset) {
+        return before(getDefinitions(name), offset);
+    }
+
+    /**
+     * Definitions placed before or at given offset which are visible from its scope
+     */
+    public List<PsiPositionedElement> getVisibleDefinitionsBefore(@Nullable String name, int offset) {
+        List<PsiPositionedElement> out = new ArrayList<PsiPositionedElement>();
+        for (PsiPositionedElement definition : getDefinitionsBefore(name, offset)) {
+            if (scopes.isVisible(definition.getPosition(), offset)) {
+                out.add(definition);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Definitions in the scope of given offset, in its parent scopes or in its nested scopes
+     */
+    public List<PsiPositionedElement> getRelatedDefinitions(@NotNull String name, int offset) {
+        List<PsiPositionedElement> out = new ArrayList<PsiPositionedElement>();
+        for (PsiPositionedElement definition : getDefinitions(name)) {
+            int position = definition.getPosition();
+            if (scopes.isVisible(position, offset) || scopes.isVisible(offset, position)) {
+                out.add(definition);
+            }
+        }
+        return out;
+    }
+
+    public boolean isDefinedBefore(@NotNull String name, int offset) {
+        for (PsiPositionedElement definition : getDefinitionsBefore(name, offset)) {
+            if (scopes.isVisible(definition.getPosition(), offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Variable defined at given offset is used after it in the same scope (or nested scopes)
+     */
+    public boolean isUsedAfter(@NotNull String name, int offset) {
+        List<PsiPositionedElement> list = usages.get(name);
+        if (list == null) {
+            return false;
+        }
+
+        int index = firstIndexAfter(list, offset - 1);
+        return index < list.size() && list.get(index).getPosition() < scopes.getEnd(scopes.findScope(offset));
+    }
+
+    public LatteScopeTree getScopes() {
+        return scopes;
+    }
+
+    private static List<PsiPositionedElement> before(List<PsiPositionedElement> list, int offset) {
+        return list.subList(0, firstIndexAfter(list, offset));
+    }
+
+    private static List<PsiPositionedElement> after(List<PsiPositionedElement> list, int offset) {
+        return list.subList(firstIndexAfter(list, offset - 1), list.size());
+    }
+
+    /**
+     * Binary search for the first element with position greater than offset.
+     */
+    private static int firstIndexAfter(List<PsiPositionedElement> list, int offset) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list.get(middle).getPosition() <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
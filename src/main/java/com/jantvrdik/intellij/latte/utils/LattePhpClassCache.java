@@ -0,0 +1,79 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.php.PhpIndex;
+import com.jetbrains.php.lang.PhpLanguage;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Project level cache of PHP classes (and interfaces, traits) found by FQN.
+ *
+ * Cache is dropped after every change of PHP files, project roots or indexes and keeps at most MAX_SIZE recently used names.
+ */
+public class LattePhpClassCache {
+
+    private static final int MAX_SIZE = 2048;
+
+    private static final Key<CachedValue<LattePhpClassCache>> KEY = Key.create("LATTE_PHP_CLASS_CACHE");
+
+    private final Project project;
+
+    private final Map<String, Collection<PhpClass>> classes = new LinkedHashMap<String, Collection<PhpClass>>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Collection<PhpClass>> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private LattePhpClassCache(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static LattePhpClassCache getInstance(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, KEY, () -> CachedValueProvider.Result.create(
+                new LattePhpClassCache(project),
+                PsiModificationTracker.SERVICE.getInstance(project).forLanguage(PhpLanguage.INSTANCE),
+                ProjectRootManager.getInstance(project),
+                DumbService.getInstance(project).getModificationTracker()
+        ), false);
+    }
+
+    /**
+     * @param fqn normalized class name with leading backslash
+     */
+    @NotNull
+    public Collection<PhpClass> getClassesByFQN(@NotNull String fqn) {
+        Collection<PhpClass> cached;
+        synchronized (classes) {
+            cached = classes.get(fqn);
+        }
+        if (cached != null && isValid(cached)) {
+            return cached;
+        }
+
+        Collection<PhpClass> found = Collections.unmodifiableList(new ArrayList<PhpClass>(PhpIndex.getInstance(project).getAnyByFQN(fqn)));
+        synchronized (classes) {
+            classes.put(fqn, found);
+        }
+        return found;
+    }
+
+    private static boolean isValid(@NotNull Collection<PhpClass> phpClasses) {
+        for (PhpClass phpClass : phpClasses) {
+            if (!phpClass.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
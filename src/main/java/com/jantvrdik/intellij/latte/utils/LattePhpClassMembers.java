@@ -0,0 +1,82 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.jetbrains.php.lang.PhpLanguage;
+import com.jetbrains.php.lang.psi.elements.Field;
+import com.jetbrains.php.lang.psi.elements.Method;
+import com.jetbrains.php.lang.psi.elements.PhpClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Methods and fields (including inherited) of one PHP class by name, cached until PHP files are changed.
+ */
+public class LattePhpClassMembers {
+
+    private final Map<String, List<Method>> methods = new HashMap<String, List<Method>>();
+    private final Map<String, List<Field>> fields = new HashMap<String, List<Field>>();
+
+    private LattePhpClassMembers(@NotNull PhpClass phpClass) {
+        for (Method method : phpClass.getMethods()) {
+            methods.computeIfAbsent(method.getName(), k -> new ArrayList<Method>(1)).add(method);
+        }
+        for (Field field : phpClass.getFields()) {
+            fields.computeIfAbsent(field.getName(), k -> new ArrayList<Field>(1)).add(field);
+        }
+    }
+
+    public static LattePhpClassMembers getInstance(@NotNull PhpClass phpClass) {
+        return CachedValuesManager.getCachedValue(phpClass, () -> CachedValueProvider.Result.create(
+                new LattePhpClassMembers(phpClass),
+                PsiModificationTracker.SERVICE.getInstance(phpClass.getProject()).forLanguage(PhpLanguage.INSTANCE)
+        ));
+    }
+
+    /**
+     * Methods with given name in order of PhpClass.getMethods()
+     */
+    @NotNull
+    public List<Method> getMethods(@NotNull String name) {
+        return Collections.unmodifiableList(methods.getOrDefault(name, Collections.emptyList()));
+    }
+
+    /**
+     * Properties and constants with given name (property name without $) in order of PhpClass.getFields()
+     */
+    @NotNull
+    public List<Field> getFields(@NotNull String name) {
+        return Collections.unmodifiableList(fields.getOrDefault(name, Collections.emptyList()));
+    }
+
+    @NotNull
+    public List<Field> getFields(@NotNull String name, boolean constant) {
+        List<Field> out = new ArrayList<Field>();
+        for (Field field : getFields(name)) {
+            if (field.isConstant() == constant) {
+                out.add(field);
+            }
+        }
+        return out;
+    }
+
+    @NotNull
+    public static List<Method> findMethods(@NotNull Collection<PhpClass> phpClasses, @NotNull String name) {
+        List<Method> out = new ArrayList<Method>();
+        for (PhpClass phpClass : phpClasses) {
+            out.addAll(getInstance(phpClass).getMethods(name));
+        }
+        return out;
+    }
+
+    @NotNull
+    public static List<Field> findFields(@NotNull Collection<PhpClass> phpClasses, @NotNull String name, boolean constant) {
+        List<Field> out = new ArrayList<Field>();
+        for (PhpClass phpClass : phpClasses) {
+            out.addAll(getInstance(phpClass).getFields(name, constant));
+        }
+        return out;
+    }
+}
@@ -3,32 +3,36 @@ package com.jantvrdik.intellij.latte.utils;
 import com.intellij.openapi.project.Project;
 import com.jetbrains.php.lang.psi.elements.PhpClass;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Immutable parsed PHP type, instances are created by create() methods and shared for the same type string.
+ */
 public class LattePhpType {
 
-    private final List<TypePart> types = new ArrayList<TypePart>();
-    private final String name;
-    private final boolean nullable;
-    private boolean hasClass = false;
-
-    public LattePhpType(String type) {
-        this(null, type, false);
-    }
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<String, LattePhpType> interned = new ConcurrentHashMap<String, LattePhpType>();
 
-    public LattePhpType(String type, boolean nullable) {
-        this(null, type, nullable);
-    }
+    public static final LattePhpType MIXED = create("mixed");
+    public static final LattePhpType NULL = create("null");
+    public static final LattePhpType STRING = create("string");
+    public static final LattePhpType INT = create("int");
+    public static final LattePhpType FLOAT = create("float");
+    public static final LattePhpType BOOL = create("bool");
+    public static final LattePhpType ARRAY = create("array");
 
-    public LattePhpType(String name, String type) {
-        this(name, type, false);
-    }
+    private final List<TypePart> types;
+    private final String[] classes;
+    private final String readableString;
+    private final String name;
+    private final boolean nullable;
 
-    public LattePhpType(String name, String typeString, boolean nullable) {
+    private LattePhpType(@Nullable String typeString, boolean nullable) {
+        List<TypePart> types = new ArrayList<TypePart>(1);
         if (typeString == null || typeString.length() == 0) {
             types.add(new TypePart("mixed"));
 
@@ -46,15 +50,61 @@ public class LattePhpType {
                     continue;
                 }
 
-                TypePart typePart = new TypePart(part);
-                if (typePart.isClass) {
-                    this.hasClass = true;
-                }
-                types.add(typePart);
+                types.add(new TypePart(part));
             }
         }
-        this.name = name == null ? null : LattePhpUtil.normalizePhpVariable(name);
+        this.types = Collections.unmodifiableList(types);
+        this.classes = types.stream()
+                .filter(typePart -> typePart.isClass)
+                .map(TypePart::getPart)
+                .toArray(String[]::new);
+        this.name = null;
         this.nullable = nullable;
+
+        String out = types.stream()
+                .map(TypePart::getPart)
+                .collect(Collectors.joining("|"));
+        this.readableString = nullable ? out + "|null" : out;
+    }
+
+    private LattePhpType(@NotNull String name, @NotNull LattePhpType type) {
+        this.types = type.types;
+        this.classes = type.classes;
+        this.readableString = type.readableString;
+        this.name = LattePhpUtil.normalizePhpVariable(name);
+        this.nullable = type.nullable;
+    }
+
+    @NotNull
+    public static LattePhpType create(@Nullable String type) {
+        return create(type, false);
+    }
+
+    @NotNull
+    public static LattePhpType create(@Nullable String type, boolean nullable) {
+        String key = type == null ? "" : type;
+        if (nullable) {
+            key += "|null";
+        }
+
+        LattePhpType phpType = interned.get(key);
+        if (phpType == null) {
+            if (interned.size() >= MAX_INTERNED) {
+                interned.clear();
+            }
+            phpType = new LattePhpType(type, nullable);
+            interned.put(key, phpType);
+        }
+        return phpType;
+    }
+
+    /**
+     * @param name variable name (with or without $), named types are not interned but share parsed type
+     */
+    @NotNull
+    public static LattePhpType create(@Nullable String name, @Nullable String type, boolean nullable) {
+        LattePhpType phpType = create(type, nullable);
+        return name == null ? phpType : new LattePhpType(name, phpType);
     }
 
     public String getName() {
@@ -62,15 +112,11 @@ public class LattePhpType {
     }
 
     public boolean containsClasses() {
-        return hasClass;
+        return classes.length > 0;
     }
 
     public boolean hasUndefinedClass(@NotNull Project project) {
-        if (!containsClasses()) {
-            return false;
-        }
-
-        for (String className : findClasses()) {
+        for (String className : classes) {
             if (LattePhpUtil.getClassesByFQN(project, className).size() == 0) {
                 return true;
             }
@@ -83,7 +129,12 @@ public class LattePhpType {
             return false;
         }
         String normalizedName = LattePhpUtil.normalizeClassName(className);
-        return types.stream().anyMatch(typePart -> typePart.isClass && typePart.getPart().equals(normalizedName));
+        for (String typeClass : classes) {
+            if (typeClass.equals(normalizedName)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean hasClass(Collection<PhpClass> phpClasses) {
@@ -102,22 +153,25 @@ public class LattePhpType {
         return nullable;
     }
 
+    /**
+     * Returned collection can not be modified.
+     */
     public Collection<PhpClass> getPhpClasses(Project project) {
+        if (classes.length == 0) {
+            return Collections.emptyList();
+        } else if (classes.length == 1) {
+            return LattePhpUtil.getClassesByFQN(project, classes[0]);
+        }
+
         List<PhpClass> output = new ArrayList<>();
-        for (String wholeType : findClasses()) {
+        for (String wholeType : classes) {
             output.addAll(LattePhpUtil.getClassesByFQN(project, wholeType));
         }
         return output;
     }
 
     String[] findClasses() {
-        if (!containsClasses()) {
-            return new String[0];
-        }
-        return types.stream()
-                .filter(typePart -> typePart.isClass)
-                .map(TypePart::getPart)
-                .toArray(String[]::new);
+        return classes.clone();
     }
 
     @Override
@@ -126,35 +180,35 @@ public class LattePhpType {
     }
 
     public String toReadableString() {
-        String out =  types.stream()
-                .map(TypePart::getPart)
-                .collect(Collectors.joining("|"));
-        if (nullable) {
-            out += "|null";
-        }
-        return out;
+        return readableString;
     }
 
     static class TypePart {
-        String part;
-        boolean isClass = false;
-        boolean isNative = false;
-        boolean isArrayOf = false;
+        final String part;
+        final boolean isClass;
+        final boolean isNative;
+        final boolean isArrayOf;
 
         TypePart (@NotNull String part) {
+            boolean isClass = false;
+            boolean isNative = false;
+            boolean isArrayOf = false;
             if (part.endsWith("[]")) {
                 part = "array";
-                this.isArrayOf = true; //todo: add support for types in array
+                isArrayOf = true; //todo: add support for types in array
 
             } else if (LatteTypesUtil.isNativeTypeHint(part)) {
                 part = part.toLowerCase();
-                this.isNative = true;
+                isNative = true;
 
             } else {
                 part = LattePhpUtil.normalizeClassName(part);
-                this.isClass = true;
+                isClass = true;
             }
             this.part = part;
+            this.isClass = isClass;
+            this.isNative = isNative;
+            this.isArrayOf = isArrayOf;
         }
 
         String getPart() {
@@ -162,4 +216,4 @@ public class LattePhpType {
         }
     }
 
-}
\ No newline at end of file
+}
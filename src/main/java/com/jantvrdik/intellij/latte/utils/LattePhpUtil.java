@@ -109,38 +109,22 @@ public class LattePhpUtil {
             return out;
         }
 
-        List<Field> fields = new ArrayList<>();
-        for (PhpClass phpClass : phpClasses) {
-            for (Field field : phpClass.getFields()) {
-                if (
-                        ((isConstant && field.isConstant()) || (!isConstant && !field.isConstant()))
-                                && field.getName().equals(name)
-                ) {
-                    fields.add(field);
-                }
-            }
-        }
-        return fields;
+        return LattePhpClassMembers.findFields(phpClasses, name, isConstant);
     }
 
     public static List<Method> getMethodsForPhpElement(@NotNull LattePhpMethod psiElement) {
-        List<Method> out = new ArrayList<Method>();
         Collection<PhpClass> phpClasses = psiElement.getPhpType().getPhpClasses(psiElement.getProject());
-        if (phpClasses != null && phpClasses.size() > 0) {
-            String methodName = psiElement.getMethodName();
-            for (PhpClass phpClass : phpClasses) {
-                for (Method currentMethod : phpClass.getMethods()) {
-                    if (currentMethod.getName().equals(methodName)) {
-                        out.add(currentMethod);
-                    }
-                }
-            }
+        if (phpClasses == null || phpClasses.size() == 0) {
+            return new ArrayList<Method>();
         }
-        return out;
+        return LattePhpClassMembers.findMethods(phpClasses, psiElement.getMethodName());
     }
 
+    /**
+     * Returns cached classes (see LattePhpClassCache), returned collection can not be modified.
+     */
     public static Collection<PhpClass> getClassesByFQN(Project project, String className) {
-        return getPhpIndex(project).getAnyByFQN(className);
+        return LattePhpClassCache.getInstance(project).getClassesByFQN(className);
     }
 
     public static Collection<Function> getFunctionByName(Project project, String functionName) {
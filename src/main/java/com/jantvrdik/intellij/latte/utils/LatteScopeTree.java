@@ -0,0 +1,81 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import java.util.Arrays;
+
+/**
+ * Nested ranges of scope macros ({block}, {define}) in one template.
+ *
+ * Ranges must be added in document order (sorted by start), which is the order of a tree walk.
+ * Variables defined in a scope are visible in the scope and in all nested scopes.
+ */
+public class LatteScopeTree {
+
+    public static final int ROOT = -1;
+
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int[] parents = new int[8];
+    private int size = 0;
+
+    public void add(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            parents = Arrays.copyOf(parents, size * 2);
+        }
+
+        int parent = size - 1;
+        while (parent != ROOT && ends[parent] <= start) {
+            parent = parents[parent];
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        parents[size] = parent;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index of the innermost scope containing offset or ROOT
+     */
+    public int findScope(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int scope = low - 1;
+        while (scope != ROOT && ends[scope] <= offset) {
+            scope = parents[scope];
+        }
+        return scope;
+    }
+
+    public boolean contains(int scope, int offset) {
+        return scope == ROOT || (starts[scope] <= offset && offset < ends[scope]);
+    }
+
+    /**
+     * @return end offset of the scope or Integer.MAX_VALUE for ROOT
+     */
+    public int getEnd(int scope) {
+        return scope == ROOT ? Integer.MAX_VALUE : ends[scope];
+    }
+
+    /**
+     * Definition placed at definitionOffset is visible at offset (without checking order of both offsets).
+     */
+    public boolean isVisible(int definitionOffset, int offset) {
+        return contains(findScope(definitionOffset), offset);
+    }
+}
@@ -0,0 +1,124 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteTemplateIndex;
+import com.jantvrdik.intellij.latte.indexes.LatteTemplateUsage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Dependencies between Latte templates ({include}, {extends}, {layout}, {import}, {embed}) in both directions.
+ *
+ * Nothing is cached here, every query goes to LatteTemplateIndex which is updated per file: forward edges are read
+ * from the indexed data of the template itself, reverse edges are one lookup by the file name of the template.
+ */
+public class LatteTemplateGraph {
+
+    private final Project project;
+
+    private LatteTemplateGraph(@NotNull Project project) {
+        this.project = project;
+    }
+
+    public static LatteTemplateGraph getInstance(@NotNull Project project) {
+        return new LatteTemplateGraph(project);
+    }
+
+    /**
+     * @param path template path as written in the referencing template
+     */
+    @Nullable
+    public static VirtualFile resolve(@NotNull VirtualFile template, @NotNull String path) {
+        VirtualFile directory = template.getParent();
+        VirtualFile file = directory != null ? directory.findFileByRelativePath(path) : null;
+        return file != null && !file.isDirectory() ? file : null;
+    }
+
+    /**
+     * Templates used by given template
+     *
+     * @param kinds mask of LatteTemplateUsage kinds
+     */
+    @NotNull
+    public Set<VirtualFile> getReferencedTemplates(@NotNull VirtualFile template, int kinds) {
+        Set<VirtualFile> out = new LinkedHashSet<VirtualFile>();
+        for (LatteTemplateUsage usage : FileBasedIndex.getInstance().getFileData(LatteTemplateIndex.KEY, template, project).values()) {
+            for (Map.Entry<String, Integer> entry : usage.getPaths().entrySet()) {
+                VirtualFile target = (entry.getValue() & kinds) != 0 ? resolve(template, entry.getKey()) : null;
+                if (target != null) {
+                    out.add(target);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Templates which use given template
+     *
+     * @param kinds mask of LatteTemplateUsage kinds
+     */
+    @NotNull
+    public Set<VirtualFile> getReferencingTemplates(@NotNull VirtualFile template, int kinds) {
+        Set<VirtualFile> out = new LinkedHashSet<VirtualFile>();
+        FileBasedIndex.getInstance().processValues(LatteTemplateIndex.KEY, template.getName(), null, (file, usage) -> {
+            for (Map.Entry<String, Integer> entry : usage.getPaths().entrySet()) {
+                if ((entry.getValue() & kinds) != 0 && template.equals(resolve(file, entry.getKey()))) {
+                    out.add(file);
+                    break;
+                }
+            }
+            return true;
+        }, GlobalSearchScope.allScope(project));
+        return out;
+    }
+
+    /**
+     * Templates which use given template directly or through other templates, without the template itself.
+     */
+    @NotNull
+    public Set<VirtualFile> getAffectedTemplates(@NotNull VirtualFile template) {
+        return getReferencingTemplatesDeep(template, LatteTemplateUsage.ALL);
+    }
+
+    /**
+     * Templates used by given template directly or through other templates, e.g. all layouts for EXTENDS.
+     *
+     * @param kinds mask of LatteTemplateUsage kinds
+     */
+    @NotNull
+    public Set<VirtualFile> getReferencedTemplatesDeep(@NotNull VirtualFile template, int kinds) {
+        return collect(template, file -> getReferencedTemplates(file, kinds));
+    }
+
+    /**
+     * Templates which use given template directly or through other templates, e.g. all children of a layout for EXTENDS.
+     *
+     * @param kinds mask of LatteTemplateUsage kinds
+     */
+    @NotNull
+    public Set<VirtualFile> getReferencingTemplatesDeep(@NotNull VirtualFile template, int kinds) {
+        return collect(template, file -> getReferencingTemplates(file, kinds));
+    }
+
+    @NotNull
+    private static Set<VirtualFile> collect(@NotNull VirtualFile template, @NotNull Function<VirtualFile, Set<VirtualFile>> edges) {
+        Set<VirtualFile> out = new LinkedHashSet<VirtualFile>();
+        Deque<VirtualFile> queue = new ArrayDeque<VirtualFile>();
+        queue.add(template);
+        while (!queue.isEmpty()) {
+            for (VirtualFile file : edges.apply(queue.poll())) {
+                if (!file.equals(template) && out.add(file)) {
+                    queue.add(file);
+                }
+            }
+        }
+        return out;
+    }
+}
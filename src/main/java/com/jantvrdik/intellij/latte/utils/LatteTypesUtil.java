@@ -17,7 +17,7 @@ public class LatteTypesUtil {
 
     final private static TokenSet whitespaceTokens = TokenSet.create(LatteTypes.T_WHITESPACE, TokenType.WHITE_SPACE);
 
-    final private static TokenSet typeHintTokens = TokenSet.create(LatteTypes.T_PHP_TYPE, LatteTypes.PHP_CLASS, LatteTypes.T_PHP_NULL, LatteTypes.T_PHP_MIXED);
+    final private static TokenSet typeHintTokens = TokenSet.create(LatteTypes.T_PHP_TYPE, LatteTypes.PHP_CLASS, LatteTypes.T_PHP_NULL, LatteTypes.T_PHP_MIXED, LatteTypes.PHP_TYPE_HINT);
 
     final private static TokenSet typeHintOperatorTokens = TokenSet.create(
             LatteTypes.T_PHP_OR_INCLUSIVE,
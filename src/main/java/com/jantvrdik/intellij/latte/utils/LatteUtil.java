@@ -10,8 +10,12 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.*;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.jantvrdik.intellij.latte.LatteFileType;
+import com.jantvrdik.intellij.latte.indexes.*;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
@@ -24,108 +28,68 @@ public class LatteUtil {
     }
 
     public static List<PsiPositionedElement> findVariablesDefinitionsInFileBeforeElement(@NotNull PsiElement element, @NotNull VirtualFile virtualFile, @Nullable String key) {
-        List<PsiPositionedElement> variables = findVariablesInFileBeforeElement(element, virtualFile, key);
-
-        return variables.stream()
-                .filter(variableElement -> variableElement.getElement() instanceof LattePhpVariable && ((LattePhpVariable) variableElement.getElement()).isDefinition())
-                .collect(Collectors.toList());
+        LatteFileVariables variables = getFileVariables(element.getProject(), virtualFile);
+        if (variables == null) {
+            return Collections.emptyList();
+        }
+        return variables.getVisibleDefinitionsBefore(key, getStartOffsetInFile(element));
     }
 
     public static List<PsiPositionedElement> findVariablesInFileBeforeElement(@NotNull PsiElement element, @NotNull VirtualFile virtualFile, @Nullable String key) {
-        List<PsiPositionedElement> variables = findVariablesInFile(element.getProject(), virtualFile, key);
-
-        int offset = getStartOffsetInFile(element);
-        return variables.stream()
-                .filter(variableElement -> variableElement.getPosition() <= offset)
-                .collect(Collectors.toList());
+        LatteFileVariables variables = getFileVariables(element.getProject(), virtualFile);
+        if (variables == null) {
+            return Collections.emptyList();
+        }
+        return variables.getVariablesBefore(key, getStartOffsetInFile(element));
     }
 
     public static List<PsiPositionedElement> findVariablesInFileAfterElement(@NotNull PsiElement element, @NotNull VirtualFile virtualFile, @Nullable String key) {
-        List<PsiPositionedElement> variables = findVariablesInFile(element.getProject(), virtualFile, key);
-
-        int offset = getStartOffsetInFile(element);
-        return variables.stream()
-                .filter(variableElement -> variableElement.getPosition() >= offset)
-                .collect(Collectors.toList());
+        LatteFileVariables variables = getFileVariables(element.getProject(), virtualFile);
+        if (variables == null) {
+            return Collections.emptyList();
+        }
+        return variables.getVariablesAfter(key, getStartOffsetInFile(element));
     }
 
     public static List<PsiPositionedElement> findVariablesInFile(@NotNull Project project, @NotNull VirtualFile file, @Nullable String key) {
-        List<PsiPositionedElement> result = null;
-        LatteFile simpleFile = (LatteFile) PsiManager.getInstance(project).findFile(file);
-        if (simpleFile != null) {
-            List<PsiPositionedElement> properties = new ArrayList<PsiPositionedElement>();
-            for (PsiElement element : simpleFile.getChildren()) {
-                findLattePhpVariables(properties, element);
-            }
-
-            for (PsiPositionedElement variable : properties) {
-                if (!(variable.getElement() instanceof LattePhpVariable)) {
-                    continue;
-                }
+        LatteFileVariables variables = getFileVariables(project, file);
+        return variables != null ? variables.getVariables(key) : Collections.<PsiPositionedElement>emptyList();
+    }
 
-                String varName = ((LattePhpVariable) variable.getElement()).getVariableName();
-                if (key == null || key.equals(varName)) {
-                    if (result == null) {
-                        result = new ArrayList<PsiPositionedElement>();
-                    }
-                    result.add(variable);
-                }
-            }
-        }
-        return result != null ? result : Collections.<PsiPositionedElement>emptyList();
+    @Nullable
+    public static LatteFileVariables getFileVariables(@NotNull Project project, @NotNull VirtualFile file) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        return psiFile instanceof LatteFile ? LatteFileVariables.getInstance((LatteFile) psiFile) : null;
     }
 
     public static Collection<LattePhpMethod> findMethods(Project project, String key, @Nullable Collection<PhpClass> phpClasses) {
-        return findElementsInAllFiles(project, key, LattePhpMethod.class, phpClasses);
+        return findElementsInAllFiles(project, key, LattePhpMethod.class, phpClasses, LattePhpMemberUsage.METHOD, LattePhpMethodStubIndex.KEY);
     }
 
     public static Collection<BaseLattePhpElement> findFunctions(Project project, String key) {
-        return findMethods(project, key, null).stream()
+        return findElementsInAllFiles(project, key, LattePhpMethod.class, null, LattePhpMemberUsage.FUNCTION, LattePhpMethodStubIndex.KEY).stream()
                 .filter(LattePhpMethod::isFunction)
                 .collect(Collectors.toList());
     }
 
     public static Collection<LattePhpProperty> findProperties(Project project, String key, @NotNull Collection<PhpClass> phpClass) {
-        return findElementsInAllFiles(project, key, LattePhpProperty.class, phpClass);
+        return findElementsInAllFiles(project, key, LattePhpProperty.class, phpClass, LattePhpMemberUsage.PROPERTY, LattePhpPropertyStubIndex.KEY);
     }
 
     public static Collection<LattePhpConstant> findConstants(Project project, String key, @NotNull Collection<PhpClass> phpClass) {
-        return findElementsInAllFiles(project, key, LattePhpConstant.class, phpClass);
+        return findElementsInAllFiles(project, key, LattePhpConstant.class, phpClass, LattePhpMemberUsage.CONSTANT, LattePhpConstantStubIndex.KEY);
     }
 
     public static Collection<LattePhpClass> findClasses(Project project, String key) {
-        return findElementsInAllFiles(project, key, LattePhpClass.class, null);
+        return findElementsInAllFiles(project, key, LattePhpClass.class, null, LattePhpMemberUsage.CLASS, LattePhpClassStubIndex.KEY);
     }
 
     public static Collection<LattePhpStaticVariable> findStaticVariables(Project project, String key, @NotNull Collection<PhpClass> phpClass) {
-        return findElementsInAllFiles(project, key, LattePhpStaticVariable.class, phpClass);
+        return findElementsInAllFiles(project, key, LattePhpStaticVariable.class, phpClass, LattePhpMemberUsage.STATIC_VARIABLE, LattePhpStaticVariableStubIndex.KEY);
     }
 
     public static Collection<LatteMacroModifier> findModifiers(Project project, String key) {
-        List<LatteMacroModifier> result = new ArrayList<LatteMacroModifier>();
-        Collection<VirtualFile> virtualFiles =
-                FileTypeIndex.getFiles(LatteFileType.INSTANCE, GlobalSearchScope.allScope(project));
-        for (VirtualFile virtualFile : virtualFiles) {
-            LatteFile simpleFile = (LatteFile) PsiManager.getInstance(project).findFile(virtualFile);
-            if (simpleFile != null) {
-                List<PsiElement> elements = new ArrayList<PsiElement>();
-                for (PsiElement element : simpleFile.getChildren()) {
-                    findFileItem(elements, element, LatteMacroModifier.class);
-                }
-
-                for (PsiElement element : elements) {
-                    if (!(element instanceof LatteMacroModifier)) {
-                        continue;
-                    }
-
-                    String varName = ((LatteMacroModifier) element).getModifierName();
-                    if (key.equals(varName)) {
-                        result.add((LatteMacroModifier) element);
-                    }
-                }
-            }
-        }
-        return result;
+        return StubIndex.getElements(LatteMacroModifierStubIndex.KEY, key, project, GlobalSearchScope.allScope(project), LatteMacroModifier.class);
     }
 
     public static boolean matchParentMacroName(@NotNull PsiElement element, @NotNull String name) {
@@ -142,21 +106,23 @@ public class LatteUtil {
         return fileText.length() >= startOffset + string.length() && fileText.substring(startOffset, startOffset + string.length()).equals(string);
     }
 
-    private static <T extends BaseLattePhpElement> Collection<T> findElementsInAllFiles(Project project, String key, Class<T> className, @Nullable Collection<PhpClass> phpClass) {
+    private static <T extends BaseLattePhpElement> Collection<T> findElementsInAllFiles(
+            Project project,
+            String key,
+            Class<T> className,
+            @Nullable Collection<PhpClass> phpClass,
+            int kind,
+            StubIndexKey<String, T> indexKey
+    ) {
         List<T> result = new ArrayList<T>();
-        Collection<VirtualFile> virtualFiles =
-                FileTypeIndex.getFiles(LatteFileType.INSTANCE, GlobalSearchScope.allScope(project));
-        for (VirtualFile virtualFile : virtualFiles) {
-            LatteFile simpleFile = (LatteFile) PsiManager.getInstance(project).findFile(virtualFile);
-            if (simpleFile != null) {
-                List<PsiElement> elements = new ArrayList<PsiElement>();
-                for (PsiElement element : simpleFile.getChildren()) {
-                    findFileItem(elements, element, className);
-                }
-
-                attachResults(result, key, elements, phpClass);
-            }
+        Collection<VirtualFile> virtualFiles = LattePhpMemberIndex.findFiles(project, key, kind, phpClass);
+        if (virtualFiles.isEmpty()) {
+            return result;
         }
+
+        GlobalSearchScope scope = GlobalSearchScope.filesScope(project, virtualFiles);
+        List<PsiElement> elements = new ArrayList<PsiElement>(StubIndex.getElements(indexKey, key, project, scope, className));
+        attachResults(result, key, elements, phpClass);
         return result;
     }
 
@@ -178,34 +144,22 @@ public class LatteUtil {
         }
     }
 
-    private static void findLattePhpVariables(List<PsiPositionedElement> properties, PsiElement psiElement) {
-        psiElement.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-            @Override
-            public void visitElement(PsiElement element) {
-                if (element instanceof LattePhpVariable) {
-                    properties.add(new PsiPositionedElement(getStartOffsetInFile(element), element));
-                } else {
-                    super.visitElement(element);
-                }
-            }
-        });
-    }
-
-    private static <T> void findFileItem(List<PsiElement> properties, PsiElement psiElement, Class<T> className) {
-        psiElement.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-            @Override
-            public void visitElement(PsiElement element) {
-                if (className.isInstance(element)) {
-                    properties.add(element);
-                } else {
-                    super.visitElement(element);
-                }
-            }
-        });
+    /**
+     * Result for a whole file is cached until the file is changed.
+     */
+    @Nullable
+    public static LattePhpType findFirstLatteTemplateType(PsiElement element) {
+        if (element instanceof LatteFile) {
+            return CachedValuesManager.getCachedValue(element, () -> CachedValueProvider.Result.create(
+                    computeFirstLatteTemplateType(element),
+                    element
+            ));
+        }
+        return computeFirstLatteTemplateType(element);
     }
 
     @Nullable
-    public static LattePhpType findFirstLatteTemplateType(PsiElement element) {
+    private static LattePhpType computeFirstLatteTemplateType(PsiElement element) {
         List<LattePhpClass> out = new ArrayList<LattePhpClass>();
         findLatteTemplateType(out, element);
         return out.isEmpty() ? null : out.get(0).getPhpType();
@@ -225,16 +179,7 @@ public class LatteUtil {
     }
 
     public static void findLatteMacroTemplateType(List<LatteMacroTag> classes, LatteFile file) {
-        file.acceptChildren(new PsiRecursiveElementWalkingVisitor() {
-            @Override
-            public void visitElement(PsiElement element) {
-                if (element instanceof LatteMacroTag && ((LatteMacroTag) element).matchMacroName("templateType")) {
-                    classes.add((LatteMacroTag) element);
-                } else {
-                    super.visitElement(element);
-                }
-            }
-        });
+        classes.addAll(LatteFileElements.getInstance(file).getMacroTags("templateType"));
     }
 
     public static int getStartOffsetInFile(PsiElement psiElement) {
@@ -0,0 +1,47 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import com.intellij.openapi.util.TextRange;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatteBlockIndexTest {
+	@Test
+	public void testParseDefinition() throws Exception {
+		assertEquals("content", parse("content", false));
+		assertEquals("content", parse("#content", false));
+		assertEquals("content", parse(" content|strip", false));
+		assertEquals("menu", parse("menu $items, $active", false));
+		assertEquals("item", parse("local item", false));
+		assertEquals("content", parse("\"content\"", false));
+		assertEquals(new TextRange(2, 9), LatteBlockIndex.parseBlockName(" #content", false));
+	}
+
+	@Test
+	public void testParseInclude() throws Exception {
+		assertEquals("content", parse("#content", true));
+		assertEquals("content", parse("content", true));
+		assertEquals("content", parse("block content", true));
+		assertEquals("menu", parse("#menu, items => $items", true));
+		assertEquals("menu", parse("menu with blocks", true));
+		assertEquals(new TextRange(6, 10), LatteBlockIndex.parseBlockName("block menu", true));
+	}
+
+	@Test
+	public void testParseIgnored() throws Exception {
+		assertNull(parse("", false));
+		assertNull(parse("|strip", false));
+		assertNull(parse("$name", false));
+		assertNull(parse("#$name", true));
+		assertNull(parse("file.latte", true));
+		assertNull(parse("'parts/menu.latte'", true));
+		assertNull(parse("file menu", true));
+		assertNull(parse("parent", true));
+		assertNull(parse("this", true));
+	}
+
+	private static String parse(String content, boolean include) {
+		TextRange range = LatteBlockIndex.parseBlockName(content, include);
+		return range != null ? range.substring(content) : null;
+	}
+}
@@ -0,0 +1,37 @@
+package com.jantvrdik.intellij.latte.indexes;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatteTemplateIndexTest {
+	@Test
+	public void testParseTemplatePath() throws Exception {
+		assertEquals("file.latte", LatteTemplateIndex.parseTemplatePath("'file.latte'"));
+		assertEquals("../@layout.latte", LatteTemplateIndex.parseTemplatePath(" \"../@layout.latte\" "));
+		assertEquals("parts/menu.latte", LatteTemplateIndex.parseTemplatePath("'parts/menu.latte', items => $items"));
+		assertEquals("file.latte", LatteTemplateIndex.parseTemplatePath("file.latte, foo => 1"));
+		assertEquals("file.latte", LatteTemplateIndex.parseTemplatePath("file.latte|noescape"));
+		assertEquals("file.latte", LatteTemplateIndex.parseTemplatePath("file 'file.latte'"));
+		assertEquals("file.latte", LatteTemplateIndex.parseTemplatePath("file file.latte with blocks"));
+	}
+
+	@Test
+	public void testParseTemplatePathIgnored() throws Exception {
+		assertNull(LatteTemplateIndex.parseTemplatePath("#content"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("content"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("block content"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("none"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("$layout"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("\"$dir/file.latte\""));
+		assertNull(LatteTemplateIndex.parseTemplatePath("'file.latte"));
+		assertNull(LatteTemplateIndex.parseTemplatePath("''"));
+		assertNull(LatteTemplateIndex.parseTemplatePath(""));
+	}
+
+	@Test
+	public void testGetFileName() throws Exception {
+		assertEquals("file.latte", LatteTemplateIndex.getFileName("file.latte"));
+		assertEquals("@layout.latte", LatteTemplateIndex.getFileName("../@layout.latte"));
+	}
+}
@@ -0,0 +1,26 @@
+package com.jantvrdik.intellij.latte.lexer;
+
+import com.intellij.lexer.LayeredLexer;
+import com.jantvrdik.intellij.latte.psi.LatteTypes;
+
+/**
+ * Latte lexer built from nested LayeredLexers, it produces the same tokens as LatteLexer.
+ *
+ * Reference implementation for tests and benchmarks of LatteLexer.
+ */
+public class LatteLayeredLexer extends LayeredLexer {
+	public LatteLayeredLexer() {
+		super(new LatteTopLexerAdapter());
+		LayeredLexer macroLexer = new LayeredLexer(new LatteMacroLexerAdapter());
+		macroLexer.registerLayer(createContentLexerAdapter(), LatteTypes.T_MACRO_CONTENT);
+
+		registerLayer(macroLexer, LatteTypes.T_MACRO_CLASSIC);
+		registerLayer(createContentLexerAdapter(), LatteTypes.T_MACRO_CONTENT);
+	}
+
+	private static LayeredLexer createContentLexerAdapter() {
+		LayeredLexer contentMacroLexer = new LayeredLexer(new LatteMacroContentLexerAdapter());
+		contentMacroLexer.registerLayer(new LattePhpLexerAdapter(), LatteTypes.T_PHP_CONTENT);
+		return contentMacroLexer;
+	}
+}
@@ -6,6 +6,8 @@ import org.junit.Test;
 
 import static com.jantvrdik.intellij.latte.Assert.assertTokens;
 import static com.jantvrdik.intellij.latte.psi.LatteTypes.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class LatteLexerTest {
 	@Test
@@ -41,4 +43,33 @@ public class LatteLexerTest {
 			Pair.create(T_TEXT, "<e>"),
 		});
 	}
+
+	@Test
+	public void testSameTokensAsLayeredLexer() throws Exception {
+		String template = "{block content}\n"
+			+ "<div class=\"item\" n:if=\"$item->isVisible()\" n:class='$a ? b'>\n"
+			+ "\t{foreach $items as $key => $item}\n"
+			+ "\t\t<a n:href=\"Product:detail, $item->id\" title=\"{$item->title|noescape}\">{$item->getName()|upper|truncate:20}</a>\n"
+			+ "\t\t{if $key % 2 === 0}<span>{_'even'}</span>{else}<span>{_}odd{/_}</span>{/if}\n"
+			+ "\t\t{var $price = $item->price * \\App\\Model\\Tax::RATE}\n"
+			+ "\t{/foreach}\n"
+			+ "</div>\n"
+			+ "<script>var x = {$json};</script><style>a { color: red; }</style>\n"
+			+ "{* comment {$ignored} *}\n"
+			+ "{input name} {label name /} {control form} {$unfinished\n";
+
+		Lexer expected = new LatteLayeredLexer();
+		Lexer lexer = new LatteLexer();
+		expected.start(template);
+		lexer.start(template);
+		for (int i = 0; expected.getTokenType() != null; i++) {
+			assertEquals("Wrong token type at index " + i, expected.getTokenType(), lexer.getTokenType());
+			assertEquals("Wrong token start at index " + i, expected.getTokenStart(), lexer.getTokenStart());
+			assertEquals("Wrong token end at index " + i, expected.getTokenEnd(), lexer.getTokenEnd());
+			assertEquals("Wrong state at index " + i, expected.getState(), lexer.getState());
+			expected.advance();
+			lexer.advance();
+		}
+		assertNull(lexer.getTokenType());
+	}
 }
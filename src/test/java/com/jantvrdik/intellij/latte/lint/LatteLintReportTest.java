@@ -0,0 +1,52 @@
+package com.jantvrdik.intellij.latte.lint;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class LatteLintReportTest {
+	@Test
+	public void testJson() throws Exception {
+		LatteLintReport report = new LatteLintReport(Arrays.asList(
+				new LatteLintFileResult("templates/b.latte", 5, Collections.emptyList()),
+				new LatteLintFileResult("templates/a.latte", 12, Collections.singletonList(
+						new LatteLintProblem("LatteVariablesProblems", "WARNING", "Undefined variable 'foo'", 3, 7)
+				))
+		), 20);
+
+		assertEquals(1, report.getProblemsCount());
+		assertEquals(
+				"{\"timeMillis\":20,\"problemsCount\":1,\"files\":["
+						+ "{\"path\":\"templates/a.latte\",\"timeMillis\":12,\"problems\":[{\"inspection\":\"LatteVariablesProblems\","
+						+ "\"level\":\"WARNING\",\"message\":\"Undefined variable 'foo'\",\"line\":3,\"column\":7}]},"
+						+ "{\"path\":\"templates/b.latte\",\"timeMillis\":5,\"problems\":[]}]}",
+				report.toJson()
+		);
+	}
+
+	@Test
+	public void testSarif() throws Exception {
+		LatteLintReport report = new LatteLintReport(Collections.singletonList(
+				new LatteLintFileResult("a.latte", 12, Collections.singletonList(
+						new LatteLintProblem("LatteTemplateType", "ERROR", "Invalid class name in tag {templateType}.", 1, 1)
+				))
+		), 12);
+
+		String sarif = report.toSarif();
+		assertTrue(sarif.contains("\"version\":\"2.1.0\""));
+		assertTrue(sarif.contains("\"rules\":[{\"id\":\"LatteTemplateType\"}]"));
+		assertTrue(sarif.contains("{\"location\":{\"uri\":\"a.latte\"},\"properties\":{\"timeMillis\":12}}"));
+		assertTrue(sarif.contains("\"ruleId\":\"LatteTemplateType\",\"level\":\"error\""));
+		assertTrue(sarif.contains("\"region\":{\"startLine\":1,\"startColumn\":1}"));
+	}
+
+	@Test
+	public void testQuote() throws Exception {
+		assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", LatteLintReport.quote("a\"b\\c\nd\u0001"));
+		assertEquals("note", LatteLintReport.getSarifLevel("INFORMATION"));
+		assertEquals("warning", LatteLintReport.getSarifLevel("WEAK WARNING"));
+	}
+}
@@ -0,0 +1,48 @@
+package com.jantvrdik.intellij.latte.parser;
+
+import com.intellij.lexer.Lexer;
+import com.jantvrdik.intellij.latte.config.LatteConfiguration;
+import com.jantvrdik.intellij.latte.lexer.LatteLexer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatteMacroPairingTableTest {
+	private static LatteMacroPairingTable create(String text) {
+		Lexer lexer = new LatteLexer();
+		lexer.start(text);
+		return LatteMacroPairingTable.create(lexer, LatteConfiguration.INSTANCE.getSnapshot(null));
+	}
+
+	@Test
+	public void testPairAndUnpaired() {
+		LatteMacroPairingTable table = create("{if $a}{include foo}{/if}{$b}");
+		assertEquals(3, table.getTagsCount());
+		assertEquals(Boolean.TRUE, table.isPair(0));
+		assertEquals(Boolean.FALSE, table.isPair(7));
+		assertEquals(Boolean.FALSE, table.isPair(25));
+		assertNull(table.isPair(20));
+	}
+
+	@Test
+	public void testEmpty() {
+		LatteMacroPairingTable table = create("{block foo /}{block bar}{/block}");
+		assertEquals(Boolean.TRUE, table.isEmpty(0));
+		assertEquals(Boolean.FALSE, table.isEmpty(13));
+		assertEquals(Boolean.TRUE, table.isPair(13));
+	}
+
+	@Test
+	public void testUnderscore() {
+		LatteMacroPairingTable table = create("{_}text{/_}{_'text'}");
+		assertEquals(Boolean.TRUE, table.isPair(0));
+		assertEquals(Boolean.FALSE, table.isPair(11));
+	}
+
+	@Test
+	public void testAttrOnly() {
+		LatteMacroPairingTable table = create("{class $a}{if $b}{/if}");
+		assertNull(table.isPair(0));
+		assertEquals(Boolean.TRUE, table.isPair(10));
+	}
+}
@@ -70,27 +70,41 @@ public class LattePhpTypeTest {
 		assertHasClass("\\Unknown", "Unknown|String|NULL", true);
 	}
 
+	@Test
+	public void testInterning() throws Exception {
+		assertSame(LattePhpType.create("\\Foo\\Bar|null"), LattePhpType.create("\\Foo\\Bar|null"));
+		assertSame(LattePhpType.MIXED, LattePhpType.create("mixed"));
+		assertSame(LattePhpType.STRING, LattePhpType.create("string", false));
+		assertNotSame(LattePhpType.STRING, LattePhpType.create("string", true));
+		assertEquals("string|null", LattePhpType.create("string", true).toReadableString());
+
+		LattePhpType named = LattePhpType.create("$foo", "string", false);
+		assertEquals("foo", named.getName());
+		assertEquals("string", named.toReadableString());
+		assertNull(LattePhpType.STRING.getName());
+	}
+
 	public static void assertLattePhpType(String expected, String type) {
-		assertEquals(expected, new LattePhpType(type).toReadableString());
+		assertEquals(expected, LattePhpType.create(type).toReadableString());
 	}
 
 	public static void assertLattePhpTypeClasses(String[] expected, String type) {
-		assertArrayEquals(expected, new LattePhpType(type).findClasses());
+		assertArrayEquals(expected, LattePhpType.create(type).findClasses());
 	}
 
 	public static void assertIsNullable(boolean nullable, String type) {
 		if (nullable) {
-			assertTrue(new LattePhpType(type).isNullable());
+			assertTrue(LattePhpType.create(type).isNullable());
 		} else {
-			assertFalse(new LattePhpType(type).isNullable());
+			assertFalse(LattePhpType.create(type).isNullable());
 		}
 	}
 
 	public static void assertHasClass(String expected, String type, boolean has) {
 		if (has) {
-			assertTrue(new LattePhpType(type).hasClass(expected));
+			assertTrue(LattePhpType.create(type).hasClass(expected));
 		} else {
-			assertFalse(new LattePhpType(type).hasClass(expected));
+			assertFalse(LattePhpType.create(type).hasClass(expected));
 		}
 	}
 }
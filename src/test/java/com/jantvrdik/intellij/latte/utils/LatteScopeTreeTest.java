@@ -0,0 +1,62 @@
+package com.jantvrdik.intellij.latte.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatteScopeTreeTest {
+	@Test
+	public void testFindScope() throws Exception {
+		// {block}0-100 containing {define}10-50 containing {block}20-30, sibling {define}60-90, then {block}120-150
+		LatteScopeTree tree = createTree();
+
+		assertEquals(0, tree.findScope(0));
+		assertEquals(0, tree.findScope(5));
+		assertEquals(1, tree.findScope(10));
+		assertEquals(2, tree.findScope(25));
+		assertEquals(1, tree.findScope(30));
+		assertEquals(0, tree.findScope(55));
+		assertEquals(3, tree.findScope(89));
+		assertEquals(0, tree.findScope(95));
+		assertEquals(LatteScopeTree.ROOT, tree.findScope(110));
+		assertEquals(4, tree.findScope(120));
+		assertEquals(LatteScopeTree.ROOT, tree.findScope(150));
+	}
+
+	@Test
+	public void testIsVisible() throws Exception {
+		LatteScopeTree tree = createTree();
+
+		assertTrue(tree.isVisible(110, 25));
+		assertTrue(tree.isVisible(5, 25));
+		assertTrue(tree.isVisible(12, 25));
+		assertFalse(tree.isVisible(25, 40));
+		assertFalse(tree.isVisible(12, 70));
+		assertFalse(tree.isVisible(70, 130));
+		assertFalse(tree.isVisible(125, 160));
+		assertTrue(tree.isVisible(125, 149));
+	}
+
+	@Test
+	public void testGrowing() throws Exception {
+		LatteScopeTree tree = new LatteScopeTree();
+		for (int i = 0; i < 100; i++) {
+			tree.add(i * 10, i * 10 + 5);
+		}
+
+		assertEquals(100, tree.size());
+		assertEquals(42, tree.findScope(423));
+		assertEquals(LatteScopeTree.ROOT, tree.findScope(427));
+		assertEquals(Integer.MAX_VALUE, tree.getEnd(LatteScopeTree.ROOT));
+	}
+
+	private static LatteScopeTree createTree() {
+		LatteScopeTree tree = new LatteScopeTree();
+		tree.add(0, 100);
+		tree.add(10, 50);
+		tree.add(20, 30);
+		tree.add(60, 90);
+		tree.add(120, 150);
+		return tree;
+	}
+}